@@ -1,7 +1,11 @@
 package com.bigeebs.quantumprocessing;
 
 
+import com.bigeebs.quantumprocessing.command.CommandQP;
+import com.bigeebs.quantumprocessing.crafting.FuelBurnTimeCache;
+import com.bigeebs.quantumprocessing.crafting.SmeltingRecipeIndex;
 import com.bigeebs.quantumprocessing.handler.ConfigurationHandler;
+import com.bigeebs.quantumprocessing.handler.MachineTickHandler;
 import com.bigeebs.quantumprocessing.init.ModBlocks;
 import com.bigeebs.quantumprocessing.init.ModItems;
 import com.bigeebs.quantumprocessing.init.ModOther;
@@ -15,8 +19,12 @@ import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.SidedProxy;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
+import net.minecraftforge.fml.common.event.FMLLoadCompleteEvent;
 import net.minecraftforge.fml.common.event.FMLPostInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
+import net.minecraftforge.fml.common.event.FMLServerStartedEvent;
+import net.minecraftforge.fml.common.event.FMLServerStartingEvent;
+import net.minecraftforge.fml.common.event.FMLServerStoppingEvent;
 import net.minecraftforge.fml.common.registry.GameRegistry;
 
 @Mod(modid= Reference.MOD_ID, name=Reference.MOD_NAME, version=Reference.MOD_VER, guiFactory = Reference.GUI_FACTORY_CLASS) //Initialize mod
@@ -57,4 +65,33 @@ public class QuantumProcessing {
         Recipes.initSmeltingRecipes();
         LogHelper.info("Post Initialization Complete!!!");
     }
+
+    // Every mod has finished postInit, so all smelting recipes and fuel handlers are registered by now
+    @Mod.EventHandler
+    public void loadComplete(FMLLoadCompleteEvent event)
+    {
+        SmeltingRecipeIndex.build();
+        FuelBurnTimeCache.invalidate();
+    }
+
+    @Mod.EventHandler
+    public void serverStarting(FMLServerStartingEvent event)
+    {
+        event.registerServerCommand(new CommandQP());
+    }
+
+    // Scripts and some mods change smelting recipes and fuels while the server starts, after loadComplete
+    @Mod.EventHandler
+    public void serverStarted(FMLServerStartedEvent event)
+    {
+        SmeltingRecipeIndex.build();
+        FuelBurnTimeCache.invalidate();
+    }
+
+    // Comes before the server saves its worlds for the last time
+    @Mod.EventHandler
+    public void serverStopping(FMLServerStoppingEvent event)
+    {
+        MachineTickHandler.flushAll();
+    }
 }
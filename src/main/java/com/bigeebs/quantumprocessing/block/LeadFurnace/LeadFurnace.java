@@ -2,8 +2,10 @@ package com.bigeebs.quantumprocessing.block.LeadFurnace;
 
 import com.bigeebs.quantumprocessing.QuantumProcessing;
 import com.bigeebs.quantumprocessing.block.QPMachineBlock;
+import com.bigeebs.quantumprocessing.block.QPMachineTileEntity;
 import com.bigeebs.quantumprocessing.creativeTab.CreativeTab;
 import com.bigeebs.quantumprocessing.names.BlockNames;
+import net.minecraft.block.Block;
 import net.minecraft.block.properties.IProperty;
 import net.minecraft.block.properties.PropertyDirection;
 import net.minecraft.block.state.BlockState;
@@ -89,6 +91,30 @@ public class LeadFurnace extends QPMachineBlock {
         super.breakBlock(worldIn, pos, state);
     }
 
+    // A neighbor changing (e.g. a hopper or pipe being placed) may let an idle furnace start working again
+    @Override
+    public void onNeighborBlockChange(World worldIn, BlockPos pos, IBlockState state, Block neighborBlock) {
+        TileEntity tileEntity = worldIn.getTileEntity(pos);
+        if (tileEntity instanceof QPMachineTileEntity) {
+            ((QPMachineTileEntity) tileEntity).wake();
+        }
+    }
+
+    @Override
+    public boolean hasComparatorInputOverride() {
+        return true;
+    }
+
+    // The tile entity keeps the level cached, so comparators reading it every update are cheap
+    @Override
+    public int getComparatorInputOverride(World worldIn, BlockPos pos) {
+        TileEntity tileEntity = worldIn.getTileEntity(pos);
+        if (tileEntity instanceof QPMachineTileEntity) {
+            return ((QPMachineTileEntity) tileEntity).getComparatorLevel();
+        }
+        return 0;
+    }
+
     @SideOnly(Side.CLIENT)
     public EnumWorldBlockLayer getBlockLayer()
     {
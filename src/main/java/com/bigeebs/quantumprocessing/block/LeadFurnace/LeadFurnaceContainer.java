@@ -37,6 +37,15 @@ public class LeadFurnaceContainer extends Container {
     private final int LEAD_FURNACE_FIRST_SLOT_INDEX = VANILLA_FIRST_SLOT_INDEX + VANILLA_SLOT_COUNT;
     private final int LEAD_FURNACE_SLOT_COUNT = 4;
 
+    // The number of pixels in the GUI's progress arrow and flame (see LeadFurnaceGUI). Progress is only sent to the
+    // client when it moves the drawing by at least one pixel
+    private static final int COOK_PROGRESS_PIXELS = 24;
+    private static final int BURN_PROGRESS_PIXELS = 14;
+
+    // The field values the crafters were last sent, and the values as they would be sent now
+    private final int[] sentFields = new int[] {-1, -1, -1, -1};
+    private final int[] currentFields = new int[4];
+
     public LeadFurnaceContainer(InventoryPlayer invPlayer, LeadFurnaceTileEntity tileEntity)
     {
         this.leadFurnaceTileEntity = tileEntity;
@@ -64,6 +73,75 @@ public class LeadFurnaceContainer extends Container {
         addSlotToContainer(new Slot(leadFurnaceTileEntity, 3, 116, 35));
     }
 
+    // Send the current progress to a player that just opened the gui
+    @Override
+    public void addCraftingToCrafters(ICrafting listener)
+    {
+        super.addCraftingToCrafters(listener);
+        updateCurrentFields();
+        for (int id = 0; id < currentFields.length; id++) {
+            listener.sendProgressBarUpdate(this, id, currentFields[id]);
+        }
+    }
+
+    // Vanilla calls this every tick. Only fields whose value changed since they were last sent are sent again
+    @Override
+    public void detectAndSendChanges()
+    {
+        super.detectAndSendChanges();
+        updateCurrentFields();
+        for (int id = 0; id < currentFields.length; id++) {
+            if (currentFields[id] != sentFields[id]) {
+                for (Object crafter : crafters) {
+                    ((ICrafting)crafter).sendProgressBarUpdate(this, id, currentFields[id]);
+                }
+                sentFields[id] = currentFields[id];
+            }
+        }
+    }
+
+    // Called on the client with the values sent by detectAndSendChanges
+    @SideOnly(Side.CLIENT)
+    @Override
+    public void updateProgressBar(int id, int data)
+    {
+        leadFurnaceTileEntity.setField(id, data);
+    }
+
+    /**
+     * Reads the furnace fields into currentFields the way they are sent to the client:
+     * - the cook and burn times are rounded down to the start of the pixel they are drawn at, so they only change when
+     *   the drawing does instead of every tick
+     * - the window property packet only carries shorts, so long burning fuels have both burn times scaled down until
+     *   they fit. The GUI only needs their ratio
+     */
+    private void updateCurrentFields()
+    {
+        int cookTimeTotal = leadFurnaceTileEntity.getField(LeadFurnaceTileEntity.FIELD_COOK_TIME_TOTAL);
+        int cookTime = leadFurnaceTileEntity.getField(LeadFurnaceTileEntity.FIELD_COOK_TIME);
+        int burnTimeTotal = leadFurnaceTileEntity.getField(LeadFurnaceTileEntity.FIELD_BURN_TIME_TOTAL);
+        int burnTime = leadFurnaceTileEntity.getField(LeadFurnaceTileEntity.FIELD_BURN_TIME);
+
+        int shift = 0;
+        while ((Math.max(burnTimeTotal, burnTime) >> shift) > Short.MAX_VALUE) shift++;
+        int scaledBurnTime = roundToPixel(burnTime, burnTimeTotal, BURN_PROGRESS_PIXELS) >> shift;
+        // still burning, even if only a little
+        if (burnTime > 0 && scaledBurnTime == 0) scaledBurnTime = 1;
+
+        currentFields[LeadFurnaceTileEntity.FIELD_BURN_TIME] = scaledBurnTime;
+        currentFields[LeadFurnaceTileEntity.FIELD_BURN_TIME_TOTAL] = burnTimeTotal >> shift;
+        currentFields[LeadFurnaceTileEntity.FIELD_COOK_TIME] = roundToPixel(cookTime, cookTimeTotal, COOK_PROGRESS_PIXELS);
+        currentFields[LeadFurnaceTileEntity.FIELD_COOK_TIME_TOTAL] = cookTimeTotal;
+    }
+
+    // the smallest value that is drawn with the same number of pixels as the given one
+    private static int roundToPixel(int value, int total, int pixels)
+    {
+        if (total < pixels || value <= 0) return value;
+        long pixel = (long)value * pixels / total;
+        return (int)((pixel * total + pixels - 1) / pixels);
+    }
+
     // Vanilla calls this method every tick to make sure the player is still able to access the inventory, and if not closes the gui
     @Override
     public boolean canInteractWith(EntityPlayer player)
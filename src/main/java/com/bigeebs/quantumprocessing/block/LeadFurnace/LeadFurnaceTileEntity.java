@@ -1,6 +1,11 @@
 package com.bigeebs.quantumprocessing.block.LeadFurnace;
 
 
+import com.bigeebs.quantumprocessing.block.MachineScheduler;
+import com.bigeebs.quantumprocessing.block.QPMachineTileEntity;
+import com.bigeebs.quantumprocessing.crafting.FuelBurnTimeCache;
+import com.bigeebs.quantumprocessing.crafting.SmeltingRecipeIndex;
+import com.bigeebs.quantumprocessing.handler.ConfigurationHandler;
 import net.minecraft.block.Block;
 import net.minecraft.block.material.Material;
 import net.minecraft.entity.player.EntityPlayer;
@@ -15,12 +20,12 @@ import net.minecraft.nbt.NBTTagList;
 import net.minecraft.network.NetworkManager;
 import net.minecraft.network.Packet;
 import net.minecraft.network.play.server.S35PacketUpdateTileEntity;
-import net.minecraft.server.gui.IUpdatePlayerListBox;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.tileentity.TileEntityFurnace;
 import net.minecraft.tileentity.TileEntityLockable;
 import net.minecraft.util.ChatComponentText;
 import net.minecraft.util.ChatComponentTranslation;
+import net.minecraft.util.EnumFacing;
 import net.minecraft.util.IChatComponent;
 import net.minecraft.util.MathHelper;
 import net.minecraft.world.EnumSkyBlock;
@@ -33,22 +38,49 @@ import java.util.Arrays;
 /**
  * Created by Andrew.Ebert on 9/23/2015.
  */
-public class LeadFurnaceTileEntity  extends TileEntity implements IInventory, IUpdatePlayerListBox {
+public class LeadFurnaceTileEntity  extends QPMachineTileEntity implements ISidedInventory {
 
-    private final int NUMBER_OF_SLOTS = 4;
-    private final int PROCESS_SLOT_1 = 0;
-    private final int PROCESS_SLOT_2 = 1;
-    private final int FUEL_SLOT = 2;
-    private final int OUTPUT_SLOT = 3;
+    private static final int NUMBER_OF_SLOTS = 4;
+    private static final int PROCESS_SLOT_1 = 0;
+    private static final int PROCESS_SLOT_2 = 1;
+    private static final int FUEL_SLOT = 2;
+    private static final int OUTPUT_SLOT = 3;
     private ItemStack[] itemStacks = new ItemStack[NUMBER_OF_SLOTS];
 
-    /** The number of ticks that the furnace will keep burning */
-    private int furnaceBurnTime;
+    /** The slots hoppers and pipes can reach from each face, like the vanilla furnace: items to smelt from the top,
+     *  the result (and empty fuel containers) from the bottom, fuel from the sides */
+    private static final int[] SLOTS_TOP = new int[] {PROCESS_SLOT_1, PROCESS_SLOT_2};
+    private static final int[] SLOTS_BOTTOM = new int[] {OUTPUT_SLOT, FUEL_SLOT};
+    private static final int[] SLOTS_SIDES = new int[] {FUEL_SLOT};
+
+    /** Version of the format written by writeToNBT. Saves without it use the old "Items" list */
+    private static final String NBT_VERSION_KEY = "QPVersion";
+    private static final byte NBT_VERSION = 1;
+    private static final String[] SLOT_KEYS = new String[] {"0", "1", "2", "3"};
+    private static final int NBT_TYPE_COMPOUND = 10;       // See NBTBase.createNewByType() for a listing
+
     /** The number of ticks that a fresh copy of the currently-burning item would keep the furnace burning for */
-    private int currentItemBurnTime;
-    private int cookTime;
     private int totalCookTime;
     private final int COOK_TIME_FOR_COMPLETION = 200;
+    /** The cook time needed for the current batch as sent by the server. Only used on the client, which has no smelting plan */
+    private int syncedCookTimeForCompletion;
+
+    /** Ids for getField/setField, synced to the client by LeadFurnaceContainer */
+    public static final int FIELD_BURN_TIME = 0;
+    public static final int FIELD_BURN_TIME_TOTAL = 1;
+    public static final int FIELD_COOK_TIME = 2;
+    public static final int FIELD_COOK_TIME_TOTAL = 3;
+    private static final int FIELD_COUNT = 4;
+    /** World time this furnace was saved at, set from NBT until the first tick after loading catches up on it */
+    private long savedWorldTime = -1;
+
+    /** The smelting plan: which input slot gets smelted next, what it turns into and how many items are smelted at once.
+     *  Only valid until a slot changes */
+    private static final int NO_SLOT = -1;
+    private boolean smeltingPlanValid;
+    private int plannedInputSlot = NO_SLOT;
+    private ItemStack plannedResult;
+    private int plannedBatchSize;
 
     /* The following are some IInventory methods you are required to override */
 
@@ -63,7 +95,7 @@ public class LeadFurnaceTileEntity  extends TileEntity implements IInventory, IU
     @SideOnly(Side.CLIENT)
     public static boolean isBurning(IInventory inventory)
     {
-        return inventory.getField(0) > 0 || inventory.getField(1) > 0;
+        return inventory.getField(FIELD_BURN_TIME) > 0 || inventory.getField(FIELD_BURN_TIME_TOTAL) > 0;
     }
 
     // Gets the number of slots in the inventory
@@ -84,8 +116,8 @@ public class LeadFurnaceTileEntity  extends TileEntity implements IInventory, IU
      */
     public double fractionOfFuelRemaining()
     {
-        if (furnaceBurnTime <= 0 ) return 0;
-        double fraction = currentItemBurnTime / (double)currentItemBurnTime;
+        if (currentItemBurnTime <= 0 || totalCookTime <= 0) return 0;
+        double fraction = currentItemBurnTime / (double)totalCookTime;
         return MathHelper.clamp_double(fraction, 0.0, 1.0);
     }
 
@@ -105,16 +137,45 @@ public class LeadFurnaceTileEntity  extends TileEntity implements IInventory, IU
      */
     public double fractionOfCookTimeComplete()
     {
-        double fraction = cookTime / (double)COOK_TIME_FOR_COMPLETION;
+        int cookTimeForCompletion = worldObj != null && worldObj.isRemote ? syncedCookTimeForCompletion : getCookTimeForCompletion();
+        if (cookTimeForCompletion <= 0) return 0;
+        double fraction = cookTime / (double)cookTimeForCompletion;
         return MathHelper.clamp_double(fraction, 0.0, 1.0);
     }
 
-    // This method is called every tick to update the tile entity, i.e.
+    // This method is called by the machine scheduler on the server to update the tile entity, i.e.
     // - see if the fuel has run out, and if so turn the furnace "off" and slowly uncook the current item (if any)
     // - see if any of the items have finished smelting
-    // It runs both on the server and the client.
+    // It then tells the scheduler how many of the following ticks only burn fuel and cook, so it isn't called for those.
+    // An idle furnace goes to sleep until its inventory or a neighbor changes. That includes a furnace that just smelted
+    // its last item or filled its output: the next tick would find nothing to smelt, burn no fuel and leave cookTime at 0,
+    // so there are no plain ticks to hand out even though fuel is still burning.
     @Override
-    public void update() {
+    public int tickMachine() {
+        if (savedWorldTime >= 0) {
+            long ticksUnloaded = worldObj.getTotalWorldTime() - savedWorldTime;
+            savedWorldTime = -1;
+            if (ticksUnloaded > 0) catchUp(Math.min(ticksUnloaded, ConfigurationHandler.furnaceCatchUpTicks));
+        }
+
+        if (!smeltTick() || !canSmelt()) return MachineScheduler.SLEEP;
+        return (int)Math.max(0, getPlainTicks());
+    }
+
+    /**
+     * The number of ticks from now in which the burning fuel doesn't run out and the item doesn't finish, so that only
+     * cookTime and currentItemBurnTime move. Only holds while the inventory doesn't change, and only means anything
+     * while canSmelt() is true
+     */
+    private long getPlainTicks() {
+        return Math.min(currentItemBurnTime - 1, getCookTimeForCompletion() - cookTime - 1);
+    }
+
+    /**
+     * Runs one tick of fuel burning and smelting
+     * @return false if the furnace can't make any progress until its inventory changes
+     */
+    private boolean smeltTick() {
         // If there is nothing to smelt or there is no room in the output, reset cookTime and return
         if (canSmelt()) {
             int numberOfFuelBurning = burnFuel();
@@ -129,13 +190,51 @@ public class LeadFurnaceTileEntity  extends TileEntity implements IInventory, IU
             if (cookTime < 0) cookTime = 0;
 
             // If cookTime has reached maxCookTime smelt the item and reset cookTime
-            if (cookTime >= COOK_TIME_FOR_COMPLETION) {
+            if (cookTime >= getCookTimeForCompletion()) {
                 smeltItem();
                 cookTime = 0;
 
             }
+
+            // Out of fuel and fully uncooked, nothing changes until new fuel is put in
+            return numberOfFuelBurning > 0 || cookTime > 0;
         }	else {
             cookTime = 0;
+            // Nothing to smelt or no room for the result, nothing changes until the inventory does
+            return false;
+        }
+    }
+
+    /**
+     * Brings the furnace up to date after its chunk was unloaded for the given number of ticks. The result is the same as
+     * calling smeltTick() that many times, but stretches of ticks where only the fuel and cook counters move are skipped
+     * in one step, so the work done depends on the number of fuel items and smelts rather than on the number of ticks.
+     * Package-private for LeadFurnaceCatchUpTest
+     */
+    void catchUp(long ticks) {
+        while (ticks > 0) {
+            if (!canSmelt()) {
+                cookTime = 0;
+                return;
+            }
+
+            if (currentItemBurnTime == 0 && getItemBurnTime(getStackInSlot(FUEL_SLOT)) <= 0) {
+                // No fuel: the item uncooks 2 ticks per tick and nothing else changes
+                cookTime = (int)Math.max(0, cookTime - 2 * ticks);
+                return;
+            }
+
+            // Ticks where the burning fuel doesn't run out and the item doesn't finish only move the two counters
+            long plainTicks = Math.min(ticks, getPlainTicks());
+            if (plainTicks > 0) {
+                currentItemBurnTime -= plainTicks;
+                cookTime += plainTicks;
+                ticks -= plainTicks;
+            } else {
+                // Refuel or smelt, run it like a normal tick
+                smeltTick();
+                ticks--;
+            }
         }
     }
 
@@ -151,18 +250,20 @@ public class LeadFurnaceTileEntity  extends TileEntity implements IInventory, IU
                 ++burningCount;
             }
             if (currentItemBurnTime == 0) {
-                if (itemStacks[FUEL_SLOT] != null && getItemBurnTime(itemStacks[FUEL_SLOT]) > 0) {
+                ItemStack fuel = getStackInSlot(FUEL_SLOT);
+                int fuelBurnTime = getItemBurnTime(fuel);
+                if (fuelBurnTime > 0) {
                     // If the stack in this slot is not null and is fuel, set burnTimeRemaining & burnTimeInitialValue to the
                     // item's burn time and decrease the stack size
-                    currentItemBurnTime = totalCookTime = getItemBurnTime(itemStacks[FUEL_SLOT]);
-                    --itemStacks[FUEL_SLOT].stackSize;
+                    currentItemBurnTime = totalCookTime = fuelBurnTime;
+                    --fuel.stackSize;
                     ++burningCount;
                     inventoryChanged = true;
                     // If the stack size now equals 0 set the slot contents to the items container item. This is for fuel
                     // items such as lava buckets so that the bucket is not consumed. If the item dose not have
                     // a container item getContainerItem returns null which sets the slot contents to null
-                    if (itemStacks[FUEL_SLOT].stackSize == 0) {
-                        itemStacks[FUEL_SLOT] = itemStacks[FUEL_SLOT].getItem().getContainerItem(itemStacks[FUEL_SLOT]);
+                    if (fuel.stackSize == 0) {
+                        itemStacks[FUEL_SLOT] = fuel.getItem().getContainerItem(fuel);
                     }
                 }
             }
@@ -177,7 +278,7 @@ public class LeadFurnaceTileEntity  extends TileEntity implements IInventory, IU
     private boolean canSmelt() {return smeltItem(false);}
 
     /**
-     * Smelt an input item into an output slot, if possible
+     * Smelt the planned batch of input items into the output slot, if possible
      */
     private void smeltItem() {smeltItem(true);}
 
@@ -189,64 +290,107 @@ public class LeadFurnaceTileEntity  extends TileEntity implements IInventory, IU
      */
     private boolean smeltItem(boolean performSmelt)
     {
-        Integer firstSuitableInputSlot = null;
-        Integer firstSuitableOutputSlot = null;
-        ItemStack result = null;
-
-        // finds the first input slot which is smeltable and whose result fits into an output slot (stacking if possible)
-        for (int inputSlot = PROCESS_SLOT_1; inputSlot < PROCESS_SLOT_1 + 2; inputSlot++)	{
-            if (itemStacks[inputSlot] != null) {
-                result = getSmeltingResultForItem(itemStacks[inputSlot]);
+        if (!smeltingPlanValid) updateSmeltingPlan();
+        if (plannedInputSlot == NO_SLOT) return false;
+        if (!performSmelt) return true;
+
+        // alter input and output
+        ItemStack input = getStackInSlot(plannedInputSlot);
+        if (input == null) {
+            // the stack was taken out without telling us, plan again before smelting
+            invalidateSmeltingPlan();
+            return smeltItem(true);
+        }
+        // the whole batch goes in one inventory change
+        int batchSize = Math.min(plannedBatchSize, input.stackSize);
+        input.stackSize -= batchSize;
+        if (input.stackSize <= 0) itemStacks[plannedInputSlot] = null;
+        if (getStackInSlot(OUTPUT_SLOT) == null) {
+            itemStacks[OUTPUT_SLOT] = plannedResult.copy(); // Use deep .copy() to avoid altering the recipe
+            itemStacks[OUTPUT_SLOT].stackSize = plannedResult.stackSize * batchSize;
+        } else {
+            itemStacks[OUTPUT_SLOT].stackSize += plannedResult.stackSize * batchSize;
+        }
+        markDirty();
+        return true;
+    }
+
+    /**
+     * finds the first input slot which is smeltable and whose result fits into the output slot (stacking if possible) and
+     * remembers it, so the following ticks don't have to look the recipe up again until the inventory changes.
+     * The batch is as many items as the furnace may smelt at once, the input slot holds and the output slot has room for
+     */
+    private void updateSmeltingPlan()
+    {
+        plannedInputSlot = NO_SLOT;
+        plannedResult = null;
+        plannedBatchSize = 0;
+        for (int inputSlot = PROCESS_SLOT_1; inputSlot <= PROCESS_SLOT_2; inputSlot++) {
+            ItemStack inputStack = getStackInSlot(inputSlot);
+            if (inputStack != null) {
+                ItemStack result = getSmeltingResultForItem(inputStack);
                 if (result != null) {
-                    // find the first suitable output slot- either empty, or with identical item that has enough space
-                    for (int outputSlot = OUTPUT_SLOT; outputSlot < OUTPUT_SLOT + 1; outputSlot++) {
-                        ItemStack outputStack = itemStacks[outputSlot];
-                        if (outputStack == null) {
-                            firstSuitableInputSlot = inputSlot;
-                            firstSuitableOutputSlot = outputSlot;
-                            break;
-                        }
-
-                        if (outputStack.getItem() == result.getItem() && (!outputStack.getHasSubtypes() || outputStack.getMetadata() == outputStack.getMetadata())
-                                && ItemStack.areItemStackTagsEqual(outputStack, result)) {
-                            int combinedSize = itemStacks[outputSlot].stackSize + result.stackSize;
-                            if (combinedSize <= getInventoryStackLimit() && combinedSize <= itemStacks[outputSlot].getMaxStackSize()) {
-                                firstSuitableInputSlot = inputSlot;
-                                firstSuitableOutputSlot = outputSlot;
-                                break;
-                            }
-                        }
+                    int outputRoom = getOutputRoom(result);
+                    if (outputRoom > 0) {
+                        plannedInputSlot = inputSlot;
+                        plannedResult = result;
+                        plannedBatchSize = Math.min(getMaxBatchSize(), Math.min(inputStack.stackSize, outputRoom));
+                        break;
                     }
-                    if (firstSuitableInputSlot != null) break;
                 }
             }
         }
+        smeltingPlanValid = true;
+    }
 
-        if (firstSuitableInputSlot == null) return false;
-        if (!performSmelt) return true;
+    /**
+     * the output slot is either empty, or holds an identical item with space left
+     * @return how many times the result fits into the output slot
+     */
+    private int getOutputRoom(ItemStack result)
+    {
+        if (result.stackSize <= 0) return 0;
+        ItemStack outputStack = getStackInSlot(OUTPUT_SLOT);
+        if (outputStack == null) {
+            return Math.min(getInventoryStackLimit(), result.getMaxStackSize()) / result.stackSize;
+        }
 
-        // alter input and output
-        itemStacks[firstSuitableInputSlot].stackSize--;
-        if (itemStacks[firstSuitableInputSlot].stackSize <=0) itemStacks[firstSuitableInputSlot] = null;
-        if (itemStacks[firstSuitableOutputSlot] == null) {
-            itemStacks[firstSuitableOutputSlot] = result.copy(); // Use deep .copy() to avoid altering the recipe
-        } else {
-            itemStacks[firstSuitableOutputSlot].stackSize += result.stackSize;
+        if (outputStack.getItem() == result.getItem() && (!outputStack.getHasSubtypes() || outputStack.getMetadata() == result.getMetadata())
+                && ItemStack.areItemStackTagsEqual(outputStack, result)) {
+            int space = Math.min(getInventoryStackLimit(), outputStack.getMaxStackSize()) - outputStack.stackSize;
+            return Math.max(0, space) / result.stackSize;
         }
-        markDirty();
-        return true;
+        return 0;
     }
 
-    // returns the smelting result for the given stack. Returns null if the given stack can not be smelted
-    public static ItemStack getSmeltingResultForItem(ItemStack stack) { return FurnaceRecipes.instance().getSmeltingResult(stack); }
+    /**
+     * The most items smelted in one cycle. A cycle takes COOK_TIME_FOR_COMPLETION ticks per item, so batching doesn't
+     * change the smelting speed, only how often the inventory changes
+     */
+    protected int getMaxBatchSize()
+    {
+        return ConfigurationHandler.furnaceBatchSize;
+    }
 
-    // returns the number of ticks the given item will burn. Returns 0 if the given item is not a valid fuel
-    public static short getItemBurnTime(ItemStack stack)
+    // ticks needed to smelt the planned batch
+    private int getCookTimeForCompletion()
+    {
+        if (!smeltingPlanValid) updateSmeltingPlan();
+        return COOK_TIME_FOR_COMPLETION * Math.max(1, plannedBatchSize);
+    }
+
+    // Called whenever the contents of a slot may have changed
+    private void invalidateSmeltingPlan()
     {
-        int burntime = TileEntityFurnace.getItemBurnTime(stack);  // just use the vanilla values
-        return (short)MathHelper.clamp_int(burntime, 0, Short.MAX_VALUE);
+        smeltingPlanValid = false;
     }
 
+    // returns the smelting result for the given stack. Returns null if the given stack can not be smelted
+    public static ItemStack getSmeltingResultForItem(ItemStack stack) { return SmeltingRecipeIndex.getSmeltingResult(stack); }
+
+    // returns the number of ticks the given item will burn. Returns 0 if the given item is not a valid fuel
+    public static int getItemBurnTime(ItemStack stack) { return FuelBurnTimeCache.getItemBurnTime(stack); }
+
     /**
      * Removes some of the units from itemstack in the given slot, and returns as a separate itemstack
      * @param slotIndex the slot number to remove the items from
@@ -282,6 +426,19 @@ public class LeadFurnaceTileEntity  extends TileEntity implements IInventory, IU
         markDirty();
     }
 
+    @Override
+    public void markDirty() {
+        // hoppers change stack sizes directly and only tell us through markDirty
+        invalidateSmeltingPlan();
+        super.markDirty();
+    }
+
+    // Like vanilla containers, the signal depends on how full the slots are
+    @Override
+    protected int computeComparatorLevel() {
+        return Container.calcRedstoneFromInventory(this);
+    }
+
     // This is the maximum number if items allowed in each slot
     // This only affects things such as hoppers trying to insert items you need to use the container to enforce this for players
     // inserting items via the gui
@@ -303,40 +460,69 @@ public class LeadFurnaceTileEntity  extends TileEntity implements IInventory, IU
         return player.getDistanceSq(pos.getX() + X_CENTRE_OFFSET, pos.getY() + Y_CENTRE_OFFSET, pos.getZ() + Z_CENTRE_OFFSET) < MAXIMUM_DISTANCE_SQ;
     }
 
-    // Return true if the given stack is allowed to go in the given slot.  In this case, we can insert anything.
+    // Return true if the given stack is allowed to go in the given slot: smeltable items in the process slots, fuel in
+    // the fuel slot and nothing in the output slot. Both lookups are cached, so hoppers retrying every tick stay cheap.
     // This only affects things such as hoppers trying to insert items you need to use the container to enforce this for players
     // inserting items via the gui
     @Override
     public boolean isItemValidForSlot(int slotIndex, ItemStack itemstack) {
+        if (itemstack == null) return false;
+        switch (slotIndex) {
+            case PROCESS_SLOT_1:
+            case PROCESS_SLOT_2:
+                return getSmeltingResultForItem(itemstack) != null;
+            case FUEL_SLOT:
+                return getItemBurnTime(itemstack) > 0;
+            default:
+                return false;
+        }
+    }
 
-        if (slotIndex != 3)
-            return true;
-        else
-            return false;
+    // The slots that hoppers and pipes can reach from the given face
+    @Override
+    public int[] getSlotsForFace(EnumFacing side) {
+        if (side == EnumFacing.UP) return SLOTS_TOP;
+        if (side == EnumFacing.DOWN) return SLOTS_BOTTOM;
+        return SLOTS_SIDES;
+    }
+
+    @Override
+    public boolean canInsertItem(int slotIndex, ItemStack itemstack, EnumFacing direction) {
+        return isItemValidForSlot(slotIndex, itemstack);
+    }
+
+    // The result can always be taken out. The fuel slot only gives up what is no longer fuel, such as the bucket left by lava
+    @Override
+    public boolean canExtractItem(int slotIndex, ItemStack itemstack, EnumFacing direction) {
+        if (slotIndex == OUTPUT_SLOT) return true;
+        return slotIndex == FUEL_SLOT && direction == EnumFacing.DOWN && getItemBurnTime(itemstack) <= 0;
     }
 
     // This is where you save any data that you don't want to lose when the tile entity unloads
-    // In this case, it saves the itemstacks stored in the container
+    // In this case, it saves the itemstacks stored in the container and the smelting progress.
+    // Since NBT_VERSION 1 the format is:
+    //   QPVersion - the format version
+    //   Inventory - one ItemStack compound per non-empty slot, named by the slot number
+    //   State     - {cookTime, currentItemBurnTime, totalCookTime}
+    //   WorldTime - when it was saved, so the furnace can catch up when it is loaded again
     @Override
     public void writeToNBT(NBTTagCompound parentNBTTagCompound)
     {
         super.writeToNBT(parentNBTTagCompound); // The super call is required to save and load the tileEntity's location
+        parentNBTTagCompound.setByte(NBT_VERSION_KEY, NBT_VERSION);
 
-        // to use an analogy with Java, this code generates an array of hashmaps
-        // The itemStack in each slot is converted to an NBTTagCompound, which is effectively a hashmap of key->value pairs such
-        //   as slot=1, id=2353, count=1, etc
-        // Each of these NBTTagCompound are then inserted into NBTTagList, which is similar to an array.
-        NBTTagList dataForAllSlots = new NBTTagList();
-        for (int i = 0; i < this.itemStacks.length; ++i) {
-            if (this.itemStacks[i] != null)	{
-                NBTTagCompound dataForThisSlot = new NBTTagCompound();
-                dataForThisSlot.setByte("Slot", (byte) i);
-                this.itemStacks[i].writeToNBT(dataForThisSlot);
-                dataForAllSlots.appendTag(dataForThisSlot);
+        // empty slots are simply left out
+        NBTTagCompound inventory = new NBTTagCompound();
+        for (int i = 0; i < NUMBER_OF_SLOTS; ++i) {
+            if (itemStacks[i] != null) {
+                inventory.setTag(SLOT_KEYS[i], itemStacks[i].writeToNBT(new NBTTagCompound()));
             }
         }
-        // the array of hashmaps is then inserted into the parent hashmap for the container
-        parentNBTTagCompound.setTag("Items", dataForAllSlots);
+        parentNBTTagCompound.setTag("Inventory", inventory);
+
+        pullHotState();
+        parentNBTTagCompound.setIntArray("State", new int[] {cookTime, currentItemBurnTime, totalCookTime});
+        if (worldObj != null) parentNBTTagCompound.setLong("WorldTime", worldObj.getTotalWorldTime());
     }
 
     // This is where you load the data that you saved in writeToNBT
@@ -344,16 +530,38 @@ public class LeadFurnaceTileEntity  extends TileEntity implements IInventory, IU
     public void readFromNBT(NBTTagCompound parentNBTTagCompound)
     {
         super.readFromNBT(parentNBTTagCompound); // The super call is required to save and load the tiles location
-        final byte NBT_TYPE_COMPOUND = 10;       // See NBTBase.createNewByType() for a listing
-        NBTTagList dataForAllSlots = parentNBTTagCompound.getTagList("Items", NBT_TYPE_COMPOUND);
 
         Arrays.fill(itemStacks, null);           // set all slots to empty
+        invalidateSmeltingPlan();
+
+        if (parentNBTTagCompound.hasKey(NBT_VERSION_KEY)) {
+            NBTTagCompound inventory = parentNBTTagCompound.getCompoundTag("Inventory");
+            for (int i = 0; i < NUMBER_OF_SLOTS; ++i) {
+                if (inventory.hasKey(SLOT_KEYS[i], NBT_TYPE_COMPOUND)) itemStacks[i] = ItemStack.loadItemStackFromNBT(inventory.getCompoundTag(SLOT_KEYS[i]));
+            }
+
+            int[] state = parentNBTTagCompound.getIntArray("State");
+            cookTime = state.length > 0 ? state[0] : 0;
+            currentItemBurnTime = state.length > 1 ? state[1] : 0;
+            totalCookTime = state.length > 2 ? state[2] : 0;
+        } else {
+            readLegacyNBT(parentNBTTagCompound);
+        }
+
+        savedWorldTime = parentNBTTagCompound.hasKey("WorldTime") ? parentNBTTagCompound.getLong("WorldTime") : -1;
+        pushHotState();
+    }
+
+    // Furnaces saved before NBT_VERSION 1 only kept their slots, in an "Items" list of compounds with a "Slot" byte
+    private void readLegacyNBT(NBTTagCompound parentNBTTagCompound)
+    {
+        NBTTagList dataForAllSlots = parentNBTTagCompound.getTagList("Items", NBT_TYPE_COMPOUND);
         for (int i = 0; i < dataForAllSlots.tagCount(); ++i) {
             NBTTagCompound dataForOneSlot = dataForAllSlots.getCompoundTagAt(i);
             int slotIndex = dataForOneSlot.getByte("Slot") & 255;
 
-            if (slotIndex >= 0 && slotIndex < this.itemStacks.length) {
-                this.itemStacks[slotIndex] = ItemStack.loadItemStackFromNBT(dataForOneSlot);
+            if (slotIndex >= 0 && slotIndex < NUMBER_OF_SLOTS) {
+                itemStacks[slotIndex] = ItemStack.loadItemStackFromNBT(dataForOneSlot);
             }
         }
     }
@@ -363,6 +571,7 @@ public class LeadFurnaceTileEntity  extends TileEntity implements IInventory, IU
     @Override
     public void clear() {
         Arrays.fill(itemStacks, null);
+        invalidateSmeltingPlan();
     }
 
     @Override
@@ -395,16 +604,45 @@ public class LeadFurnaceTileEntity  extends TileEntity implements IInventory, IU
     @Override
     public void closeInventory(EntityPlayer player) {}
 
+    // The fuel and cook progress, used by LeadFurnaceContainer to keep the GUI on the client up to date
     @Override
     public int getField(int id) {
-        return 0;
+        pullHotState();
+        switch (id) {
+            case FIELD_BURN_TIME:
+                return currentItemBurnTime;
+            case FIELD_BURN_TIME_TOTAL:
+                return totalCookTime;
+            case FIELD_COOK_TIME:
+                return cookTime;
+            case FIELD_COOK_TIME_TOTAL:
+                return worldObj != null && worldObj.isRemote ? syncedCookTimeForCompletion : getCookTimeForCompletion();
+            default:
+                return 0;
+        }
     }
 
     @Override
-    public void setField(int id, int value) {}
+    public void setField(int id, int value) {
+        switch (id) {
+            case FIELD_BURN_TIME:
+                currentItemBurnTime = value;
+                break;
+            case FIELD_BURN_TIME_TOTAL:
+                totalCookTime = value;
+                break;
+            case FIELD_COOK_TIME:
+                cookTime = value;
+                break;
+            case FIELD_COOK_TIME_TOTAL:
+                syncedCookTimeForCompletion = value;
+                break;
+        }
+        pushHotState();
+    }
 
     @Override
     public int getFieldCount() {
-        return 0;
+        return FIELD_COUNT;
     }
 }
@@ -0,0 +1,228 @@
+package com.bigeebs.quantumprocessing.block;
+
+import com.bigeebs.quantumprocessing.handler.ConfigurationHandler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Ticks all QP machines of one world from a single loop.
+ *
+ * The state that changes every tick (cook time and fuel burn time) is kept in parallel arrays indexed by the machine's
+ * slot, together with the number of "plain" ticks the machine said are coming up: ticks in which nothing happens except
+ * the cook time going up by one and the burn time going down by one. Those ticks are done right here on the arrays. The
+ * machine itself is only called (QPMachineTileEntity.tickMachine) when it runs out of plain ticks or was interrupted by an
+ * inventory change, and its cookTime/currentItemBurnTime fields are only brought up to date around that call or when
+ * something asks for them (pullHotState).
+ *
+ * Machines register when their tile entity is validated on the server and unregister when it is invalidated or its
+ * chunk unloads. Machines are kept densely packed; removing one moves the last machine into its slot.
+ *
+ * The scheduler also collects the machines that were marked dirty and flushes each of them once per tick (flushDirty).
+ */
+public class MachineScheduler {
+
+    /** Returned by tickMachine when the machine can't make progress until it is woken */
+    public static final int SLEEP = -1;
+
+    private QPMachineTileEntity[] machines = new QPMachineTileEntity[16];
+    private int[] cookTime = new int[16];
+    private int[] burnTime = new int[16];
+    private int[] plainTicks = new int[16];
+    private boolean[] sleeping = new boolean[16];
+    private int size;
+    private int sleepingCount;
+    // slot of the machine currently inside tickMachine, its fields are ahead of the arrays until it returns
+    private int slowTickIndex = -1;
+
+    // registrations arriving while the loop runs are applied after it, so slots don't move under it
+    private boolean ticking;
+    private final List<QPMachineTileEntity> pendingAdd = new ArrayList<QPMachineTileEntity>();
+    private final List<QPMachineTileEntity> pendingRemove = new ArrayList<QPMachineTileEntity>();
+
+    // machines marked dirty since the last flush, each listed once
+    private QPMachineTileEntity[] dirty = new QPMachineTileEntity[16];
+    private int dirtyCount;
+    // markDirty calls that found the machine already dirty and so cost nothing
+    private long coalescedMarkDirtyCount;
+
+    public int getMachineCount() {
+        return size;
+    }
+
+    public int getSleepingCount() {
+        return sleepingCount;
+    }
+
+    public long getCoalescedMarkDirtyCount() {
+        return coalescedMarkDirtyCount;
+    }
+
+    public void register(QPMachineTileEntity machine) {
+        if (machine.getSchedulerIndex() >= 0) return;
+        if (ticking) {
+            pendingRemove.remove(machine);
+            if (!pendingAdd.contains(machine)) pendingAdd.add(machine);
+            return;
+        }
+
+        if (size == machines.length) grow();
+        machines[size] = machine;
+        cookTime[size] = machine.cookTime;
+        burnTime[size] = machine.currentItemBurnTime;
+        plainTicks[size] = 0;
+        sleeping[size] = false;
+        machine.setScheduler(this, size);
+        size++;
+    }
+
+    public void unregister(QPMachineTileEntity machine) {
+        if (ticking) {
+            pendingAdd.remove(machine);
+            if (machine.getSchedulerIndex() >= 0 && !pendingRemove.contains(machine)) pendingRemove.add(machine);
+            return;
+        }
+
+        int index = machine.getSchedulerIndex();
+        if (index < 0 || machines[index] != machine) return;
+
+        // keep the tile entity's fields current, it may still be saved after this
+        pull(index);
+        if (sleeping[index]) sleepingCount--;
+        machine.setScheduler(null, -1);
+
+        int last = --size;
+        if (index != last) {
+            machines[index] = machines[last];
+            cookTime[index] = cookTime[last];
+            burnTime[index] = burnTime[last];
+            plainTicks[index] = plainTicks[last];
+            sleeping[index] = sleeping[last];
+            machines[index].setScheduler(this, index);
+        }
+        machines[last] = null;
+    }
+
+    /**
+     * Ticks every awake machine once
+     */
+    public void tick() {
+        ticking = true;
+        boolean sleepAllowed = ConfigurationHandler.machineSleeping;
+
+        QPMachineTileEntity[] machines = this.machines;
+        int[] cookTime = this.cookTime;
+        int[] burnTime = this.burnTime;
+        int[] plainTicks = this.plainTicks;
+        boolean[] sleeping = this.sleeping;
+
+        for (int i = 0; i < size; i++) {
+            if (sleeping[i]) continue;
+
+            int plain = plainTicks[i];
+            if (plain > 0) {
+                plainTicks[i] = plain - 1;
+                cookTime[i]++;
+                burnTime[i]--;
+                continue;
+            }
+
+            QPMachineTileEntity machine = machines[i];
+            machine.cookTime = cookTime[i];
+            machine.currentItemBurnTime = burnTime[i];
+            slowTickIndex = i;
+            int next = machine.tickMachine();
+            slowTickIndex = -1;
+            cookTime[i] = machine.cookTime;
+            burnTime[i] = machine.currentItemBurnTime;
+
+            if (next == SLEEP) {
+                plainTicks[i] = 0;
+                if (sleepAllowed) {
+                    sleeping[i] = true;
+                    sleepingCount++;
+                }
+            } else {
+                plainTicks[i] = next;
+            }
+        }
+
+        ticking = false;
+        for (QPMachineTileEntity machine : pendingRemove) unregister(machine);
+        pendingRemove.clear();
+        for (QPMachineTileEntity machine : pendingAdd) register(machine);
+        pendingAdd.clear();
+    }
+
+    /**
+     * Makes the machine in the given slot do a full tick next time, and wakes it if it is sleeping.
+     * Called whenever something changed that the machine's plain ticks didn't account for.
+     */
+    public void interrupt(int index) {
+        plainTicks[index] = 0;
+        if (sleeping[index]) {
+            sleeping[index] = false;
+            sleepingCount--;
+        }
+    }
+
+    /**
+     * Adds a machine that just became dirty to the next flush
+     */
+    void queueDirty(QPMachineTileEntity machine) {
+        if (dirtyCount == dirty.length) dirty = Arrays.copyOf(dirty, dirtyCount * 2);
+        dirty[dirtyCount++] = machine;
+    }
+
+    void markDirtyCoalesced() {
+        coalescedMarkDirtyCount++;
+    }
+
+    /**
+     * Applies the pending markDirty of every machine marked since the last flush
+     */
+    public void flushDirty() {
+        // a flush can mark more machines dirty through their neighbors, those are picked up by the same loop
+        for (int i = 0; i < dirtyCount; i++) {
+            QPMachineTileEntity machine = dirty[i];
+            dirty[i] = null;
+            machine.flushDirty();
+        }
+        dirtyCount = 0;
+    }
+
+    public boolean isSleeping(int index) {
+        return sleeping[index];
+    }
+
+    /**
+     * Copies the array state of the given slot into the machine's fields
+     */
+    public void pull(int index) {
+        if (index == slowTickIndex) return;
+        QPMachineTileEntity machine = machines[index];
+        machine.cookTime = cookTime[index];
+        machine.currentItemBurnTime = burnTime[index];
+    }
+
+    /**
+     * Copies the machine's fields into the arrays of the given slot, after they were changed outside tickMachine
+     */
+    public void push(int index) {
+        if (index == slowTickIndex) return;
+        QPMachineTileEntity machine = machines[index];
+        cookTime[index] = machine.cookTime;
+        burnTime[index] = machine.currentItemBurnTime;
+        interrupt(index);
+    }
+
+    private void grow() {
+        int capacity = machines.length * 2;
+        machines = Arrays.copyOf(machines, capacity);
+        cookTime = Arrays.copyOf(cookTime, capacity);
+        burnTime = Arrays.copyOf(burnTime, capacity);
+        plainTicks = Arrays.copyOf(plainTicks, capacity);
+        sleeping = Arrays.copyOf(sleeping, capacity);
+    }
+}
@@ -0,0 +1,149 @@
+package com.bigeebs.quantumprocessing.block;
+
+import com.bigeebs.quantumprocessing.handler.MachineTickHandler;
+import net.minecraft.tileentity.TileEntity;
+
+/**
+ * Base tile entity for the ticking QP machines.
+ *
+ * QP machines are not ticked by the world. On the server they register with the MachineScheduler of their world when
+ * validated, and leave it when invalidated or when their chunk unloads. The scheduler calls tickMachine() only when the
+ * machine has something to decide; in between it advances cookTime and currentItemBurnTime by itself.
+ *
+ * A machine that can't make any progress returns MachineScheduler.SLEEP and is skipped until wake() is called, which
+ * happens whenever its inventory changes (markDirty) or one of its neighbors changes.
+ *
+ * markDirty only records the change. The scheduler flushes it once at the end of the world tick (flushDirty), so a
+ * machine that changes several times in one tick marks its chunk and updates its comparators only once. A change
+ * made between the world tick and an autosave goes into the autosave after that one instead, and the server flushes
+ * every machine before its final save (MachineTickHandler.flushAll).
+ */
+public abstract class QPMachineTileEntity extends TileEntity {
+
+    /** The number of ticks the current item has been cooking for */
+    protected int cookTime;
+    /** The number of ticks the currently burning fuel keeps the machine running for */
+    protected int currentItemBurnTime;
+
+    private MachineScheduler scheduler;
+    private int schedulerIndex = -1;
+
+    /** The last computed comparator output, -1 until it is first asked for */
+    private int comparatorLevel = -1;
+    /** Set by markDirty until the change is flushed */
+    private boolean dirty;
+
+    /**
+     * Runs one full tick of the machine. Called by the scheduler with cookTime and currentItemBurnTime up to date.
+     * @return the number of ticks following this one in which nothing happens except cookTime going up by one and
+     *         currentItemBurnTime going down by one, or MachineScheduler.SLEEP if the machine can't make progress
+     */
+    public abstract int tickMachine();
+
+    public int getSchedulerIndex() {
+        return schedulerIndex;
+    }
+
+    void setScheduler(MachineScheduler scheduler, int index) {
+        this.scheduler = scheduler;
+        this.schedulerIndex = index;
+    }
+
+    public boolean isSleeping() {
+        return scheduler != null && scheduler.isSleeping(schedulerIndex);
+    }
+
+    /**
+     * Makes the machine re-check its state on the next tick, waking it if it is sleeping
+     */
+    public void wake() {
+        if (scheduler != null) scheduler.interrupt(schedulerIndex);
+    }
+
+    /**
+     * Brings cookTime and currentItemBurnTime up to date. Call before reading them outside of tickMachine()
+     */
+    protected void pullHotState() {
+        if (scheduler != null) scheduler.pull(schedulerIndex);
+    }
+
+    /**
+     * Hands cookTime and currentItemBurnTime to the scheduler. Call after changing them outside of tickMachine()
+     */
+    protected void pushHotState() {
+        if (scheduler != null) scheduler.push(schedulerIndex);
+    }
+
+    /**
+     * Works out the comparator output of the machine from its current contents
+     * @return signal strength, between 0 - 15
+     */
+    protected int computeComparatorLevel() {
+        return 0;
+    }
+
+    /**
+     * The comparator output of the machine. Only recomputed when the inventory changes
+     */
+    public int getComparatorLevel() {
+        if (comparatorLevel < 0) comparatorLevel = computeComparatorLevel();
+        return comparatorLevel;
+    }
+
+    // Anything that changes the inventory (players, hoppers, pipes) ends up here.
+    // Machines without a scheduler (client side) flush straight away
+    @Override
+    public void markDirty() {
+        wake();
+        if (scheduler == null) {
+            dirty = true;
+            flushDirty();
+        } else if (dirty) {
+            scheduler.markDirtyCoalesced();
+        } else {
+            dirty = true;
+            scheduler.queueDirty(this);
+        }
+    }
+
+    /**
+     * Applies a pending markDirty: marks the chunk for saving and, unlike TileEntity.markDirty, only updates nearby
+     * comparators when the signal level actually changed
+     */
+    void flushDirty() {
+        if (!dirty) return;
+        dirty = false;
+        if (worldObj == null) return;
+
+        worldObj.markChunkDirty(pos, this);
+
+        int level = computeComparatorLevel();
+        if (level != comparatorLevel) {
+            comparatorLevel = level;
+            if (getBlockType() != null) worldObj.updateComparatorOutputLevel(pos, getBlockType());
+        }
+    }
+
+    @Override
+    public void validate() {
+        super.validate();
+        if (worldObj != null && !worldObj.isRemote) MachineTickHandler.getScheduler(worldObj).register(this);
+    }
+
+    @Override
+    public void invalidate() {
+        super.invalidate();
+        flushDirty();
+        if (scheduler != null) scheduler.unregister(this);
+    }
+
+    // Runs in the updateEntities after the chunk was unloaded, when it has already been saved. Nothing pending needs
+    // applying: unloading saves the chunk whether it is marked or not, with the machine as it is. Marking the chunk or
+    // updating comparators now would be for a chunk that is gone, so a pending change is dropped
+    @Override
+    public void onChunkUnload() {
+        super.onChunkUnload();
+        dirty = false;
+        if (scheduler != null) scheduler.unregister(this);
+    }
+}
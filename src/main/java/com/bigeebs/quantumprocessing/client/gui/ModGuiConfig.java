@@ -8,16 +8,27 @@ import net.minecraftforge.common.config.Configuration;
 import net.minecraftforge.fml.client.config.GuiConfig;
 import net.minecraftforge.fml.client.config.IConfigElement;
 
+import java.util.ArrayList;
 import java.util.List;
 
 
 public class ModGuiConfig extends GuiConfig {
     public ModGuiConfig(GuiScreen guiScreen) {
 
-        super(guiScreen, new ConfigElement(ConfigurationHandler.configuration.getCategory(Configuration.CATEGORY_GENERAL)).getChildElements(),
+        super(guiScreen, getConfigElements(),
                 Reference.MOD_ID,
                 false,
                 false,
                 GuiConfig.getAbridgedConfigPath(ConfigurationHandler.configuration.toString()));
     }
+
+    // General values at the top level, every other category as its own sub screen
+    private static List<IConfigElement> getConfigElements() {
+        Configuration configuration = ConfigurationHandler.configuration;
+        List<IConfigElement> elements = new ArrayList<IConfigElement>();
+        elements.addAll(new ConfigElement(configuration.getCategory(Configuration.CATEGORY_GENERAL)).getChildElements());
+        elements.add(new ConfigElement(configuration.getCategory(ConfigurationHandler.CATEGORY_MACHINES)));
+        elements.add(new ConfigElement(configuration.getCategory(ConfigurationHandler.CATEGORY_WORLDGEN)));
+        return elements;
+    }
 }
@@ -0,0 +1,134 @@
+package com.bigeebs.quantumprocessing.command;
+
+import com.bigeebs.quantumprocessing.handler.ConfigurationHandler;
+import com.bigeebs.quantumprocessing.handler.MachineTickHandler;
+import com.bigeebs.quantumprocessing.utility.LogHelper;
+import com.bigeebs.quantumprocessing.worldGen.OreGenStats;
+import com.bigeebs.quantumprocessing.worldGen.Pregenerator;
+import com.bigeebs.quantumprocessing.worldGen.RetroGenerator;
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.ChatComponentText;
+import net.minecraft.world.WorldServer;
+
+import java.util.List;
+
+/**
+ * /qp server command, used to look at what the mod is doing on a running server.
+ */
+public class CommandQP extends CommandBase {
+
+    private static final String MACHINES = "machines";
+    private static final String WORLDGEN = "worldgen";
+    private static final String RESET = "reset";
+    private static final String RETROGEN = "retrogen";
+    private static final String PREGEN = "pregen";
+    private static final String STOP = "stop";
+
+    @Override
+    public String getCommandName() {
+        return "qp";
+    }
+
+    @Override
+    public String getCommandUsage(ICommandSender sender) {
+        return "/qp <" + MACHINES + "|" + WORLDGEN + " [" + RESET + "]|" + RETROGEN + "|" + PREGEN + " [<radius>|" + STOP + "]>";
+    }
+
+    @Override
+    public int getRequiredPermissionLevel() {
+        return 2;
+    }
+
+    @Override
+    public void processCommand(ICommandSender sender, String[] args) throws CommandException {
+        if (args.length < 1) throw new WrongUsageException(getCommandUsage(sender));
+
+        if (MACHINES.equalsIgnoreCase(args[0])) {
+            printMachines(sender);
+        } else if (WORLDGEN.equalsIgnoreCase(args[0])) {
+            if (args.length > 1 && RESET.equalsIgnoreCase(args[1])) {
+                OreGenStats.reset();
+                sender.addChatMessage(new ChatComponentText("World generation counters reset"));
+            } else {
+                printWorldGen(sender);
+            }
+        } else if (RETROGEN.equalsIgnoreCase(args[0])) {
+            printRetrogen(sender);
+        } else if (PREGEN.equalsIgnoreCase(args[0])) {
+            pregen(sender, args);
+        } else {
+            throw new WrongUsageException(getCommandUsage(sender));
+        }
+    }
+
+    // awake vs sleeping machines per dimension
+    private void printMachines(ICommandSender sender) {
+        int totalAwake = 0;
+        int totalSleeping = 0;
+        long totalCoalesced = 0;
+        for (WorldServer world : MinecraftServer.getServer().worldServers) {
+            int[] counts = MachineTickHandler.countMachines(world);
+            totalAwake += counts[0];
+            totalSleeping += counts[1];
+            totalCoalesced += MachineTickHandler.countCoalescedMarkDirty(world);
+            if (counts[0] + counts[1] > 0) {
+                sender.addChatMessage(new ChatComponentText("Dim " + world.provider.getDimensionId() + ": "
+                        + counts[0] + " awake, " + counts[1] + " sleeping"));
+            }
+        }
+        sender.addChatMessage(new ChatComponentText("QP machines: " + totalAwake + " awake, " + totalSleeping + " sleeping"));
+        sender.addChatMessage(new ChatComponentText("markDirty calls avoided: " + totalCoalesced));
+    }
+
+    // ore generation totals since the server started, also written to the log
+    private void printWorldGen(ICommandSender sender) {
+        for (String line : OreGenStats.dump()) {
+            sender.addChatMessage(new ChatComponentText(line));
+            LogHelper.info(line);
+        }
+    }
+
+    // retrogen progress: chunks done so far, and per dimension the queue and the loaded chunks still behind
+    private void printRetrogen(ICommandSender sender) {
+        RetroGenerator retroGenerator = RetroGenerator.getInstance();
+        sender.addChatMessage(new ChatComponentText("Retrogen " + (ConfigurationHandler.worldGenRetrogen ? "on" : "off")
+                + ", generation version " + ConfigurationHandler.worldGenVersion + ", " + retroGenerator.getChunksDone() + " chunks done"));
+        for (WorldServer world : MinecraftServer.getServer().worldServers) {
+            int dimension = world.provider.getDimensionId();
+            int oldChunks = retroGenerator.getOldChunkCount(dimension);
+            if (oldChunks > 0) {
+                sender.addChatMessage(new ChatComponentText("Dim " + dimension + ": " + retroGenerator.getQueueDepth(dimension)
+                        + " queued, " + oldChunks + " loaded chunks behind"));
+            }
+        }
+    }
+
+    // /qp pregen <radius> starts generating the chunks around the spawn of the sender's world, stop stops it,
+    // and without arguments it tells how far it got
+    private void pregen(ICommandSender sender, String[] args) throws CommandException {
+        Pregenerator pregenerator = Pregenerator.getInstance();
+        if (args.length < 2) {
+            sender.addChatMessage(new ChatComponentText(pregenerator.isRunning() ? pregenerator.getProgress() : "Not pregenerating"));
+        } else if (STOP.equalsIgnoreCase(args[1])) {
+            pregenerator.stop();
+        } else if (pregenerator.isRunning()) {
+            throw new CommandException("Already pregenerating, use /qp " + PREGEN + " " + STOP + " first");
+        } else {
+            int radius = parseInt(args[1], 0, 1000);
+            pregenerator.start((WorldServer) sender.getEntityWorld(), radius, sender);
+        }
+    }
+
+    @Override
+    public List addTabCompletionOptions(ICommandSender sender, String[] args, BlockPos pos) {
+        if (args.length == 1) return getListOfStringsMatchingLastWord(args, MACHINES, WORLDGEN, RETROGEN, PREGEN);
+        if (args.length == 2 && WORLDGEN.equalsIgnoreCase(args[0])) return getListOfStringsMatchingLastWord(args, RESET);
+        if (args.length == 2 && PREGEN.equalsIgnoreCase(args[0])) return getListOfStringsMatchingLastWord(args, STOP);
+        return null;
+    }
+}
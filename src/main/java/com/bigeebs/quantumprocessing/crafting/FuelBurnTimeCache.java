@@ -0,0 +1,51 @@
+package com.bigeebs.quantumprocessing.crafting;
+
+import com.bigeebs.quantumprocessing.utility.IntIntHashMap;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.tileentity.TileEntityFurnace;
+
+/**
+ * Burn times of fuel items, remembered by item id and metadata.
+ *
+ * TileEntityFurnace.getItemBurnTime runs through a chain of item checks and then asks every registered IFuelHandler, on
+ * every call. The answer is cached the first time an item is looked up. Forge has no event for fuel handlers being
+ * added, so whoever registers one after startup should call invalidate().
+ *
+ * Stacks carrying NBT are never cached, since a fuel handler may look at the tag.
+ * Furnaces only look burn times up on the server thread. In single player, though, the integrated server and the
+ * client thread run in one JVM and share this static cache, and nothing stops client code (ours later, or another
+ * mod's) from asking for a burn time, so access is synchronized. Uncontended, that costs next to nothing.
+ */
+public class FuelBurnTimeCache {
+
+    private static final int UNKNOWN = -1;
+    private static final IntIntHashMap burnTimes = new IntIntHashMap(64);
+
+    /**
+     * @return the number of ticks the given stack burns for, 0 if it isn't a fuel
+     */
+    public static synchronized int getItemBurnTime(ItemStack stack) {
+        if (stack == null || stack.getItem() == null) return 0;
+        if (stack.hasTagCompound()) return lookupBurnTime(stack);
+
+        int key = (Item.getIdFromItem(stack.getItem()) << 16) | (stack.getMetadata() & 0xFFFF);
+        int burnTime = burnTimes.get(key, UNKNOWN);
+        if (burnTime == UNKNOWN) {
+            burnTime = lookupBurnTime(stack);
+            burnTimes.put(key, burnTime);
+        }
+        return burnTime;
+    }
+
+    /**
+     * Forgets every cached burn time, e.g. after fuel handlers were added or changed
+     */
+    public static synchronized void invalidate() {
+        burnTimes.clear();
+    }
+
+    private static int lookupBurnTime(ItemStack stack) {
+        return Math.max(0, TileEntityFurnace.getItemBurnTime(stack));  // just use the vanilla values
+    }
+}
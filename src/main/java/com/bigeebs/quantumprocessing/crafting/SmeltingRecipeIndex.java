@@ -0,0 +1,76 @@
+package com.bigeebs.quantumprocessing.crafting;
+
+import com.bigeebs.quantumprocessing.utility.LogHelper;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.FurnaceRecipes;
+import net.minecraft.util.IntHashMap;
+import net.minecraftforge.oredict.OreDictionary;
+
+import java.util.Map;
+
+/**
+ * Smelting recipes used by the QP machines, indexed by item id and metadata.
+ *
+ * FurnaceRecipes.getSmeltingResult walks the whole recipe list comparing stacks on every call. This index is built
+ * after every mod has added its recipes, and answers a lookup with at most two hash probes: the exact metadata, then the
+ * wildcard metadata. Like vanilla, NBT on the input stack is ignored.
+ *
+ * The index is a snapshot of the recipe list. It is built again once the server has started, after scripts and mods
+ * that add recipes in serverStarting; anything that changes recipes later should call build() again.
+ *
+ * Where an item has a recipe for its exact metadata and a wildcard one, the index always takes the exact one, while
+ * the FurnaceRecipes scan takes whichever its HashMap happens to list first.
+ */
+public class SmeltingRecipeIndex {
+
+    // replaced whole on a rebuild, which runs on the server thread while the client thread may be reading it
+    private static volatile IntHashMap recipes;
+
+    /**
+     * (Re)builds the index from the current FurnaceRecipes list
+     */
+    public static void build() {
+        long start = System.nanoTime();
+        IntHashMap index = new IntHashMap();
+        int entries = 0;
+
+        for (Object object : FurnaceRecipes.instance().getSmeltingList().entrySet()) {
+            Map.Entry entry = (Map.Entry) object;
+            ItemStack input = (ItemStack) entry.getKey();
+            if (input == null || input.getItem() == null) continue;
+
+            int key = getKey(Item.getIdFromItem(input.getItem()), input.getMetadata());
+            // several recipes can share an input (the map compares stacks by identity), keep the first one listed
+            if (!index.containsItem(key)) {
+                index.addKey(key, entry.getValue());
+                entries++;
+            }
+        }
+
+        recipes = index;
+        LogHelper.info("Built smelting recipe index: " + entries + " entries in " + (System.nanoTime() - start) / 1000000 + "ms");
+    }
+
+    /**
+     * Returns the smelting result for the given stack, or null if it can't be smelted.
+     * The returned stack is the recipe's own copy and must not be modified.
+     */
+    public static ItemStack getSmeltingResult(ItemStack stack) {
+        if (stack == null || stack.getItem() == null) return null;
+        // Not built yet, e.g. something asked before FMLLoadCompleteEvent
+        if (recipes == null) return FurnaceRecipes.instance().getSmeltingResult(stack);
+
+        int itemId = Item.getIdFromItem(stack.getItem());
+        ItemStack result = (ItemStack) recipes.lookup(getKey(itemId, stack.getMetadata()));
+        if (result == null) {
+            result = (ItemStack) recipes.lookup(getKey(itemId, OreDictionary.WILDCARD_VALUE));
+        }
+        return result;
+    }
+
+    // item ids and metadata both fit in 16 bits
+    private static int getKey(int itemId, int metadata) {
+        return (itemId << 16) | (metadata & 0xFFFF);
+    }
+}
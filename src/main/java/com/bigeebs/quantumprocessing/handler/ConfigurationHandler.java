@@ -10,14 +10,35 @@ import java.io.File;
 
 public class ConfigurationHandler {
 
+    public static final String CATEGORY_MACHINES = "machines";
+    public static final String CATEGORY_WORLDGEN = "worldgen";
+
     public static Configuration configuration;
     public static boolean configValue = false;
 
+    //Machines
+    public static boolean machineSleeping = true;
+    public static int furnaceBatchSize = 1;
+    public static int furnaceCatchUpTicks = 72000;
+
+    //World generation
+    public static boolean worldGenDebugLogging = false;
+    public static boolean worldGenStrictChunkBounds = false;
+    public static int worldGenPlanningThreads = 1;
+    public static int worldGenVeinShapeTemplates = 64;
+    public static int worldGenVersion = 1;
+    public static boolean worldGenRetrogen = false;
+    public static int worldGenRetrogenBudgetMs = 5;
+    public static int worldGenDepositCacheSize = 64;
+    public static int worldGenPregenBudgetMs = 40;
+    public static int prospectorRadius = 2;
+
     public static void init(File configFile) {
 
         if (configuration == null) {
             //Create Config File
             configuration = new Configuration(configFile);
+            loadConfiguration();
         }
     }
 
@@ -33,6 +54,37 @@ public class ConfigurationHandler {
 
         configValue = configuration.getBoolean("configValue", Configuration.CATEGORY_GENERAL, true, "Example config Value");
 
+        machineSleeping = configuration.getBoolean("machineSleeping", CATEGORY_MACHINES, true,
+                "Idle machines stop ticking until their inventory or a neighboring block changes");
+        furnaceBatchSize = configuration.getInt("furnaceBatchSize", CATEGORY_MACHINES, 1, 1, 64,
+                "Items a furnace smelts together in one cycle. The cycle takes proportionally longer, but the inventory only changes once");
+        furnaceCatchUpTicks = configuration.getInt("furnaceCatchUpTicks", CATEGORY_MACHINES, 72000, 0, Integer.MAX_VALUE,
+                "Most ticks of smelting a furnace makes up for when its chunk is loaded again (20 ticks = 1 second, 0 disables catching up)");
+
+        worldGenDebugLogging = configuration.getBoolean("debugLogging", CATEGORY_WORLDGEN, false,
+                "Log every generated ore vein. Slows down world generation a lot, use /qp worldgen for totals instead");
+        worldGenStrictChunkBounds = configuration.getBoolean("strictChunkBounds", CATEGORY_WORLDGEN, false,
+                "Cut off ore veins at the edge of the chunks being populated, so big veins never load neighboring chunks. Changes the shape of veins that reach that far");
+        worldGenPlanningThreads = configuration.getInt("planningThreads", CATEGORY_WORLDGEN, 1, 0, 16,
+                "Threads that plan ore veins ahead of chunk population (0 plans them on the server thread). The world generated is the same for any number");
+        configuration.getCategory(CATEGORY_WORLDGEN).get("planningThreads").setRequiresMcRestart(true);
+        worldGenVeinShapeTemplates = configuration.getInt("veinShapeTemplates", CATEGORY_WORLDGEN, 64, 0, 1024,
+                "Precomputed vein shapes per vein size that veins are picked from. 0 works out every vein like vanilla ores, which is slower but gives every vein its own shape");
+        configuration.getCategory(CATEGORY_WORLDGEN).get("veinShapeTemplates").setRequiresMcRestart(true);
+        worldGenVersion = configuration.getInt("generationVersion", CATEGORY_WORLDGEN, 1, 1, Integer.MAX_VALUE,
+                "Saved in every chunk. Raise it after turning on retrogen for an ore, so chunks saved since are done as well");
+        worldGenRetrogen = configuration.getBoolean("retrogen", CATEGORY_WORLDGEN, false,
+                "Add the ores marked for retrogen to loaded chunks with an older generationVersion");
+        worldGenRetrogenBudgetMs = configuration.getInt("retrogenBudgetMs", CATEGORY_WORLDGEN, 5, 1, 50,
+                "Milliseconds per world tick spent on retrogen");
+        worldGenDepositCacheSize = configuration.getInt("depositCacheSize", CATEGORY_WORLDGEN, 64, 1, 4096,
+                "Regions whose ore deposits are kept planned, per ore generating as deposits");
+        configuration.getCategory(CATEGORY_WORLDGEN).get("depositCacheSize").setRequiresMcRestart(true);
+        worldGenPregenBudgetMs = configuration.getInt("pregenBudgetMs", CATEGORY_WORLDGEN, 40, 1, 1000,
+                "Milliseconds per world tick spent generating chunks for /qp pregen. Above 50 the server falls behind on ticks");
+        prospectorRadius = configuration.getInt("prospectorRadius", CATEGORY_WORLDGEN, 2, 0, 8,
+                "Chunks around the player, in every direction, the ore prospector looks at");
+
         if (configuration.hasChanged()){
             configuration.save();
         }
@@ -0,0 +1,77 @@
+package com.bigeebs.quantumprocessing.handler;
+
+import com.bigeebs.quantumprocessing.block.MachineScheduler;
+import net.minecraft.world.World;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.fml.relauncher.Side;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Owns one MachineScheduler per server world and runs it at the end of every world tick,
+ * after World.updateEntities has ticked the vanilla tile entities. Pending markDirty calls are flushed
+ * right after, and that flush is what gets a change saved. A change made after it, such as by a player packet
+ * handled once the worlds have ticked, can miss an autosave in the same server tick; it is flushed at the end of the
+ * next world tick and saved by the autosave after that. The last changes before the server stops are flushed by
+ * flushAll.
+ */
+public class MachineTickHandler {
+
+    private static final Map<World, MachineScheduler> schedulers = new HashMap<World, MachineScheduler>();
+
+    public static MachineScheduler getScheduler(World world) {
+        MachineScheduler scheduler = schedulers.get(world);
+        if (scheduler == null) {
+            scheduler = new MachineScheduler();
+            schedulers.put(world, scheduler);
+        }
+        return scheduler;
+    }
+
+    /**
+     * Counts the loaded QP machines in the given world.
+     * @return {awake, sleeping}
+     */
+    public static int[] countMachines(World world) {
+        MachineScheduler scheduler = schedulers.get(world);
+        if (scheduler == null) return new int[] {0, 0};
+        int sleeping = scheduler.getSleepingCount();
+        return new int[] {scheduler.getMachineCount() - sleeping, sleeping};
+    }
+
+    /**
+     * The number of markDirty calls in the given world that were merged into an earlier one in the same tick
+     */
+    public static long countCoalescedMarkDirty(World world) {
+        MachineScheduler scheduler = schedulers.get(world);
+        return scheduler == null ? 0 : scheduler.getCoalescedMarkDirtyCount();
+    }
+
+    @SubscribeEvent
+    public void onWorldTick(TickEvent.WorldTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || event.side != Side.SERVER) return;
+
+        MachineScheduler scheduler = schedulers.get(event.world);
+        if (scheduler != null) {
+            scheduler.tick();
+            scheduler.flushDirty();
+        }
+    }
+
+    /**
+     * Flushes the pending markDirty calls of every world. Called when the server is stopping, before its final save,
+     * since no world tick comes after the last changes. WorldEvent.Save is no use for this: it is posted after the
+     * chunks have been saved
+     */
+    public static void flushAll() {
+        for (MachineScheduler scheduler : schedulers.values()) scheduler.flushDirty();
+    }
+
+    @SubscribeEvent
+    public void onWorldUnload(WorldEvent.Unload event) {
+        schedulers.remove(event.world);
+    }
+}
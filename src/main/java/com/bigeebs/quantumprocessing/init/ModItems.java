@@ -16,6 +16,7 @@ public class ModItems {
 
     //Tools
     public static QPItem matterWrench;
+    public static QPItem oreProspector;
 
     //Special Items
     public static QPItem plutoniumCore;
@@ -50,6 +51,7 @@ public class ModItems {
     {
         //Tools
         matterWrench = new MatterWrench();
+        oreProspector = new OreProspector();
 
         //Special Items
         plutoniumCore = new PlutoniumCore();
@@ -86,6 +88,7 @@ public class ModItems {
     {
         //Tools
         GameRegistry.registerItem(matterWrench, ItemNames.MATTER_WRENCH);
+        GameRegistry.registerItem(oreProspector, ItemNames.ORE_PROSPECTOR);
 
         //Special Items
         GameRegistry.registerItem(plutoniumCore, ItemNames.PLUTONIUM_CORE);
@@ -121,6 +124,7 @@ public class ModItems {
     {
         //Tools
         registerRender(matterWrench);
+        registerRender(oreProspector);
 
         //Special Items
         registerRender(plutoniumCore);
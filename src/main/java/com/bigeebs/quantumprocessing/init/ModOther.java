@@ -4,8 +4,14 @@ import com.bigeebs.quantumprocessing.QuantumProcessing;
 import com.bigeebs.quantumprocessing.block.LeadFurnace.LeadFurnaceGuiHandler;
 import com.bigeebs.quantumprocessing.block.LeadFurnace.LeadFurnaceTileEntity;
 import com.bigeebs.quantumprocessing.handler.GuiHandlerRegistry;
+import com.bigeebs.quantumprocessing.handler.MachineTickHandler;
 import com.bigeebs.quantumprocessing.names.TileEntityNames;
 import com.bigeebs.quantumprocessing.worldGen.OreGeneration;
+import com.bigeebs.quantumprocessing.worldGen.OreIndex;
+import com.bigeebs.quantumprocessing.worldGen.Pregenerator;
+import com.bigeebs.quantumprocessing.worldGen.RetroGenerator;
+import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.network.NetworkRegistry;
 import net.minecraftforge.fml.common.registry.GameRegistry;
 
@@ -22,8 +28,22 @@ public class ModOther {
         NetworkRegistry.INSTANCE.registerGuiHandler(QuantumProcessing.instance, GuiHandlerRegistry.getInstance());
         GuiHandlerRegistry.getInstance().registerGuiHandler(new LeadFurnaceGuiHandler(), LeadFurnaceGuiHandler.getGuiID());
 
+        //Machine ticking
+        MachineTickHandler machineTickHandler = new MachineTickHandler();
+        FMLCommonHandler.instance().bus().register(machineTickHandler);
+        MinecraftForge.EVENT_BUS.register(machineTickHandler);
+
         //Ore Gen
-        GameRegistry.registerWorldGenerator(new OreGeneration(), 1);
+        OreGeneration oreGeneration = new OreGeneration();
+        GameRegistry.registerWorldGenerator(oreGeneration, 1);
+        MinecraftForge.EVENT_BUS.register(oreGeneration);
+        RetroGenerator retroGenerator = new RetroGenerator(oreGeneration);
+        FMLCommonHandler.instance().bus().register(retroGenerator);
+        MinecraftForge.EVENT_BUS.register(retroGenerator);
+        MinecraftForge.EVENT_BUS.register(new OreIndex(oreGeneration.getOreNames()));
+        Pregenerator pregenerator = new Pregenerator();
+        FMLCommonHandler.instance().bus().register(pregenerator);
+        MinecraftForge.EVENT_BUS.register(pregenerator);
     }
 
     public static void initTileEntity() {
@@ -14,6 +14,7 @@ public class Recipes {
 
     public static void initShapedRecipes(){
         GameRegistry.addShapedRecipe(new ItemStack(ModItems.matterWrench), " i ", " ii", "i  " , 'i', new ItemStack(Items.iron_ingot));
+        GameRegistry.addShapedRecipe(new ItemStack(ModItems.oreProspector), " c ", " sc", "s  " , 'c', new ItemStack(ModItems.copperIngot), 's', new ItemStack(Items.stick));
     }
 
     public static void initShaplessRecipes(){
@@ -0,0 +1,56 @@
+package com.bigeebs.quantumprocessing.item;
+
+import com.bigeebs.quantumprocessing.creativeTab.CreativeTab;
+import com.bigeebs.quantumprocessing.handler.ConfigurationHandler;
+import com.bigeebs.quantumprocessing.names.ItemNames;
+import com.bigeebs.quantumprocessing.worldGen.OreIndex;
+import net.minecraft.block.Block;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.ChatComponentTranslation;
+import net.minecraft.world.World;
+
+/**
+ * Tells the player which generated ores are in the chunks around them, and at what height most of each is.
+ * The answer comes from the OreIndex, no blocks are looked at. The messages are translated on the client, block
+ * names included.
+ */
+public class OreProspector extends QPItem {
+
+    public OreProspector() {
+        super();
+        this.setCreativeTab(CreativeTab.QUANTUM_PROCESSING);
+        this.setUnlocalizedName(ItemNames.ORE_PROSPECTOR);
+        this.setMaxStackSize(1);
+    }
+
+    @Override
+    public ItemStack onItemRightClick(ItemStack itemStack, World world, EntityPlayer player) {
+        OreIndex index = OreIndex.getInstance();
+        if (world.isRemote || index == null) return itemStack;
+
+        int radius = ConfigurationHandler.prospectorRadius;
+        Block[] ores = index.getOres();
+        int[] totals = new int[ores.length * OreIndex.BANDS];
+        int missing = index.query(world, player.getPosition().getX() >> 4, player.getPosition().getZ() >> 4, radius, totals);
+
+        boolean found = false;
+        for (int slot = 0; slot < ores.length; slot++) {
+            int total = 0;
+            int richestBand = 0;
+            for (int band = 0; band < OreIndex.BANDS; band++) {
+                int count = totals[slot * OreIndex.BANDS + band];
+                total += count;
+                if (count > totals[slot * OreIndex.BANDS + richestBand]) richestBand = band;
+            }
+            if (total == 0) continue;
+
+            found = true;
+            player.addChatMessage(new ChatComponentTranslation(getUnlocalizedName() + ".found",
+                    new ChatComponentTranslation(ores[slot].getUnlocalizedName() + ".name"), total, richestBand * 16, richestBand * 16 + 15));
+        }
+        if (!found) player.addChatMessage(new ChatComponentTranslation(getUnlocalizedName() + ".none", radius));
+        if (missing > 0) player.addChatMessage(new ChatComponentTranslation(getUnlocalizedName() + ".missing", missing));
+        return itemStack;
+    }
+}
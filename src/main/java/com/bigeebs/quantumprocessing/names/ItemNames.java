@@ -9,6 +9,7 @@ public class ItemNames {
 
     //Tools
     public static final String MATTER_WRENCH = "matterWrench";
+    public static final String ORE_PROSPECTOR = "oreProspector";
 
     //Special Items
     public static final String PLUTONIUM_CORE = "plutoniumCore";
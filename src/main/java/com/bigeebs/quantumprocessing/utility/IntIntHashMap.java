@@ -0,0 +1,89 @@
+package com.bigeebs.quantumprocessing.utility;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from int keys to int values, without boxing either of them.
+ * Keys must not be negative, -1 marks an empty bucket.
+ */
+public class IntIntHashMap {
+
+    private static final int EMPTY = -1;
+    private static final float LOAD_FACTOR = 0.5F;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private int resizeAt;
+
+    public IntIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the value stored for the key, or defaultValue if there is none
+     */
+    public int get(int key, int defaultValue) {
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+        while (true) {
+            int k = keys[index];
+            if (k == key) return values[index];
+            if (k == EMPTY) return defaultValue;
+            index = (index + 1) & mask;
+        }
+    }
+
+    public void put(int key, int value) {
+        if (key < 0) throw new IllegalArgumentException("Negative key: " + key);
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+        while (true) {
+            int k = keys[index];
+            if (k == key) {
+                values[index] = value;
+                return;
+            }
+            if (k == EMPTY) {
+                keys[index] = key;
+                values[index] = value;
+                if (++size >= resizeAt) rehash(keys.length << 1);
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) put(oldKeys[i], oldValues[i]);
+        }
+    }
+
+    // packed keys differ mostly in the high bits, spread them over the low bits used for the bucket index
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
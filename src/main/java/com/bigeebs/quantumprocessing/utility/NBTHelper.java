@@ -1,8 +1,15 @@
 package com.bigeebs.quantumprocessing.utility;
 
 import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTBase;
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagString;
 
+/**
+ * The get* methods create the tag compound and store the default when the key is missing, so a stack read through
+ * them stops stacking with untouched stacks. The read* methods return the given default instead and never change the
+ * stack, use them for anything that only looks at a value. NBTKey does the same for keys that are read often.
+ */
 public class NBTHelper
 {
     public static boolean hasTag(ItemStack itemStack, String keyName)
@@ -191,4 +198,72 @@ public class NBTHelper
 
         itemStack.getTagCompound().setDouble(keyName, keyValue);
     }
-}
\ No newline at end of file
+
+    /**
+     * Looks up a tag on the given ItemStack without creating anything
+     *
+     * @return the tag, or null if the stack, its tag compound or the key is missing
+     */
+    static NBTBase readTag(ItemStack itemStack, String keyName)
+    {
+        if (itemStack == null) return null;
+        NBTTagCompound tagCompound = itemStack.getTagCompound();
+        return tagCompound == null ? null : tagCompound.getTag(keyName);
+    }
+
+    // read-only String
+    public static String readString(ItemStack itemStack, String keyName, String defaultValue)
+    {
+        NBTBase tag = readTag(itemStack, keyName);
+        return tag instanceof NBTTagString ? ((NBTTagString) tag).getString() : defaultValue;
+    }
+
+    // read-only boolean
+    public static boolean readBoolean(ItemStack itemStack, String keyName, boolean defaultValue)
+    {
+        NBTBase tag = readTag(itemStack, keyName);
+        return tag instanceof NBTBase.NBTPrimitive ? ((NBTBase.NBTPrimitive) tag).getByte() != 0 : defaultValue;
+    }
+
+    // read-only byte
+    public static byte readByte(ItemStack itemStack, String keyName, byte defaultValue)
+    {
+        NBTBase tag = readTag(itemStack, keyName);
+        return tag instanceof NBTBase.NBTPrimitive ? ((NBTBase.NBTPrimitive) tag).getByte() : defaultValue;
+    }
+
+    // read-only short
+    public static short readShort(ItemStack itemStack, String keyName, short defaultValue)
+    {
+        NBTBase tag = readTag(itemStack, keyName);
+        return tag instanceof NBTBase.NBTPrimitive ? ((NBTBase.NBTPrimitive) tag).getShort() : defaultValue;
+    }
+
+    // read-only int
+    public static int readInt(ItemStack itemStack, String keyName, int defaultValue)
+    {
+        NBTBase tag = readTag(itemStack, keyName);
+        return tag instanceof NBTBase.NBTPrimitive ? ((NBTBase.NBTPrimitive) tag).getInt() : defaultValue;
+    }
+
+    // read-only long
+    public static long readLong(ItemStack itemStack, String keyName, long defaultValue)
+    {
+        NBTBase tag = readTag(itemStack, keyName);
+        return tag instanceof NBTBase.NBTPrimitive ? ((NBTBase.NBTPrimitive) tag).getLong() : defaultValue;
+    }
+
+    // read-only float
+    public static float readFloat(ItemStack itemStack, String keyName, float defaultValue)
+    {
+        NBTBase tag = readTag(itemStack, keyName);
+        return tag instanceof NBTBase.NBTPrimitive ? ((NBTBase.NBTPrimitive) tag).getFloat() : defaultValue;
+    }
+
+    // read-only double
+    public static double readDouble(ItemStack itemStack, String keyName, double defaultValue)
+    {
+        NBTBase tag = readTag(itemStack, keyName);
+        return tag instanceof NBTBase.NBTPrimitive ? ((NBTBase.NBTPrimitive) tag).getDouble() : defaultValue;
+    }
+}
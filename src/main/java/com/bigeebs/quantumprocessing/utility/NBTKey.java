@@ -0,0 +1,170 @@
+package com.bigeebs.quantumprocessing.utility;
+
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTBase;
+import net.minecraft.nbt.NBTTagByte;
+import net.minecraft.nbt.NBTTagDouble;
+import net.minecraft.nbt.NBTTagFloat;
+import net.minecraft.nbt.NBTTagInt;
+import net.minecraft.nbt.NBTTagLong;
+import net.minecraft.nbt.NBTTagShort;
+import net.minecraft.nbt.NBTTagString;
+
+/**
+ * A precompiled handle for one ItemStack NBT key of a fixed type, meant to be kept in a static final field:
+ *
+ *     private static final NBTKey.IntKey ENERGY = NBTKey.ofInt("Energy");
+ *     int energy = ENERGY.read(stack, 0);
+ *
+ * Each type has its own handle class with a single read method, so a key can only be read as the type it was made
+ * for. Reading does a single lookup in the tag compound and compares the tag's type id with the one stored in the
+ * handle, where NBTHelper.get* does a hasKey followed by a typed get. Reading never changes the stack; a value of a
+ * different type counts as missing and gives the default. Values are still written through NBTHelper.set*.
+ */
+public abstract class NBTKey
+{
+    private static final byte TAG_BYTE = 1;
+    private static final byte TAG_SHORT = 2;
+    private static final byte TAG_INT = 3;
+    private static final byte TAG_LONG = 4;
+    private static final byte TAG_FLOAT = 5;
+    private static final byte TAG_DOUBLE = 6;
+    private static final byte TAG_STRING = 8;
+
+    private final String keyName;
+    private final byte typeId;
+
+    private NBTKey(String keyName, byte typeId)
+    {
+        this.keyName = keyName;
+        this.typeId = typeId;
+    }
+
+    public static BooleanKey ofBoolean(String keyName) { return new BooleanKey(keyName); }
+
+    public static ByteKey ofByte(String keyName) { return new ByteKey(keyName); }
+
+    public static ShortKey ofShort(String keyName) { return new ShortKey(keyName); }
+
+    public static IntKey ofInt(String keyName) { return new IntKey(keyName); }
+
+    public static LongKey ofLong(String keyName) { return new LongKey(keyName); }
+
+    public static FloatKey ofFloat(String keyName) { return new FloatKey(keyName); }
+
+    public static DoubleKey ofDouble(String keyName) { return new DoubleKey(keyName); }
+
+    public static StringKey ofString(String keyName) { return new StringKey(keyName); }
+
+    public String getKeyName()
+    {
+        return keyName;
+    }
+
+    public byte getTypeId()
+    {
+        return typeId;
+    }
+
+    // the tag stored under this key if it has this key's type, otherwise null. The type check is what makes the casts
+    // in the read methods safe
+    NBTBase lookup(ItemStack itemStack)
+    {
+        NBTBase tag = NBTHelper.readTag(itemStack, keyName);
+        return tag != null && tag.getId() == typeId ? tag : null;
+    }
+
+    public boolean isPresent(ItemStack itemStack)
+    {
+        return lookup(itemStack) != null;
+    }
+
+    // stored as a byte, like NBTTagCompound.setBoolean
+    public static final class BooleanKey extends NBTKey
+    {
+        private BooleanKey(String keyName) { super(keyName, TAG_BYTE); }
+
+        public boolean read(ItemStack itemStack, boolean defaultValue)
+        {
+            NBTBase tag = lookup(itemStack);
+            return tag != null ? ((NBTTagByte) tag).getByte() != 0 : defaultValue;
+        }
+    }
+
+    public static final class ByteKey extends NBTKey
+    {
+        private ByteKey(String keyName) { super(keyName, TAG_BYTE); }
+
+        public byte read(ItemStack itemStack, byte defaultValue)
+        {
+            NBTBase tag = lookup(itemStack);
+            return tag != null ? ((NBTTagByte) tag).getByte() : defaultValue;
+        }
+    }
+
+    public static final class ShortKey extends NBTKey
+    {
+        private ShortKey(String keyName) { super(keyName, TAG_SHORT); }
+
+        public short read(ItemStack itemStack, short defaultValue)
+        {
+            NBTBase tag = lookup(itemStack);
+            return tag != null ? ((NBTTagShort) tag).getShort() : defaultValue;
+        }
+    }
+
+    public static final class IntKey extends NBTKey
+    {
+        private IntKey(String keyName) { super(keyName, TAG_INT); }
+
+        public int read(ItemStack itemStack, int defaultValue)
+        {
+            NBTBase tag = lookup(itemStack);
+            return tag != null ? ((NBTTagInt) tag).getInt() : defaultValue;
+        }
+    }
+
+    public static final class LongKey extends NBTKey
+    {
+        private LongKey(String keyName) { super(keyName, TAG_LONG); }
+
+        public long read(ItemStack itemStack, long defaultValue)
+        {
+            NBTBase tag = lookup(itemStack);
+            return tag != null ? ((NBTTagLong) tag).getLong() : defaultValue;
+        }
+    }
+
+    public static final class FloatKey extends NBTKey
+    {
+        private FloatKey(String keyName) { super(keyName, TAG_FLOAT); }
+
+        public float read(ItemStack itemStack, float defaultValue)
+        {
+            NBTBase tag = lookup(itemStack);
+            return tag != null ? ((NBTTagFloat) tag).getFloat() : defaultValue;
+        }
+    }
+
+    public static final class DoubleKey extends NBTKey
+    {
+        private DoubleKey(String keyName) { super(keyName, TAG_DOUBLE); }
+
+        public double read(ItemStack itemStack, double defaultValue)
+        {
+            NBTBase tag = lookup(itemStack);
+            return tag != null ? ((NBTTagDouble) tag).getDouble() : defaultValue;
+        }
+    }
+
+    public static final class StringKey extends NBTKey
+    {
+        private StringKey(String keyName) { super(keyName, TAG_STRING); }
+
+        public String read(ItemStack itemStack, String defaultValue)
+        {
+            NBTBase tag = lookup(itemStack);
+            return tag != null ? ((NBTTagString) tag).getString() : defaultValue;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.bigeebs.quantumprocessing.worldGen;
+
+import com.bigeebs.quantumprocessing.utility.LogHelper;
+import com.google.common.base.Predicate;
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+
+import java.util.Arrays;
+
+/**
+ * The blocks an ore may replace, as a bit per block state id (Block.getStateId: block id + metadata << 12).
+ * Whether a block can be replaced is one array lookup however many host blocks there are, so stone, netherrack,
+ * end stone and any modded stones can share one set.
+ *
+ * The set is made from block names and stays empty until resolve() is called. Block ids are only final once every
+ * mod has registered its blocks and FML has remapped them to the ids of the world being loaded, so OreGeneration
+ * resolves its sets again whenever a world loads.
+ *
+ * Blocks are added with all their states, which matches BlockHelper.forBlock.
+ */
+public class BlockStateSet implements Predicate<IBlockState> {
+
+    /** Block ids are below 4096 and metadata below 16 */
+    private static final int STATE_IDS = 4096 << 4;
+
+    private final String[] blockNames;
+    private final long[] bits = new long[STATE_IDS >>> 6];
+    private boolean warned;
+
+    public BlockStateSet(String[] blockNames) {
+        this.blockNames = blockNames;
+    }
+
+    /**
+     * Looks the blocks up by name and sets the bits of their states with the current block ids
+     * @return the number of blocks found
+     */
+    public int resolve() {
+        Arrays.fill(bits, 0L);
+        int found = 0;
+        for (String blockName : blockNames) {
+            Block block = Block.getBlockFromName(blockName.trim());
+            if (block == null) {
+                if (!warned) LogHelper.warn("Ores can't generate in unknown block " + blockName);
+                continue;
+            }
+            found++;
+            for (Object state : block.getBlockState().getValidStates()) {
+                int id = Block.getStateId((IBlockState) state);
+                bits[id >>> 6] |= 1L << id;
+            }
+        }
+        warned = true;
+        return found;
+    }
+
+    public boolean contains(IBlockState state) {
+        int id = Block.getStateId(state);
+        return (bits[id >>> 6] & 1L << id) != 0;
+    }
+
+    @Override
+    public boolean apply(IBlockState state) {
+        return state != null && contains(state);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(blockNames);
+    }
+}
@@ -0,0 +1,219 @@
+package com.bigeebs.quantumprocessing.worldGen;
+
+import com.bigeebs.quantumprocessing.handler.ConfigurationHandler;
+import com.bigeebs.quantumprocessing.utility.LogHelper;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.IChunkProvider;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The ore veins planned for one chunk: for every vein its ore and the blocks it covers, in placement order.
+ *
+ * A plan is made without looking at the world (OreDefinition.plan) and applied on the server thread while the chunk is
+ * populated. Applying checks each block the way WorldGenMinable does (is it the block the ore replaces?) in the same
+ * order, so planning ahead gives the same world as generating in place. The check goes straight to the ore's
+ * generateIn set; blocks overriding Block.isReplaceableOreGen are only asked when written through the world.
+ *
+ * Population only guarantees that the chunk and the ones at +1 x and +1 z are loaded. Blocks past that 2x2 area are
+ * counted in OreGenStats before anything is read from the world, since reading is what would load (and generate) the
+ * chunk beyond, and left out altogether with the strictChunkBounds option.
+ */
+public class ChunkOrePlan implements OreVeinGenerator.BlockSink {
+
+    public final int chunkX;
+    public final int chunkZ;
+
+    // x, y, z of every planned block
+    private int[] blocks = new int[3 * 256];
+    private int blockCount;
+
+    // per vein: its ore, where it started and the index in blocks after its last block
+    private OreDefinition[] veinOres = new OreDefinition[16];
+    private int[] veinOrigins = new int[3 * 16];
+    private int[] veinEnds = new int[16];
+    private int veinCount;
+
+    public ChunkOrePlan(int chunkX, int chunkZ) {
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+    }
+
+    void beginVein(OreDefinition definition, int x, int y, int z) {
+        if (veinCount == veinOres.length) {
+            veinOres = Arrays.copyOf(veinOres, veinCount * 2);
+            veinOrigins = Arrays.copyOf(veinOrigins, veinCount * 6);
+            veinEnds = Arrays.copyOf(veinEnds, veinCount * 2);
+        }
+        veinOres[veinCount] = definition;
+        veinOrigins[veinCount * 3] = x;
+        veinOrigins[veinCount * 3 + 1] = y;
+        veinOrigins[veinCount * 3 + 2] = z;
+        veinEnds[veinCount] = blockCount;
+        veinCount++;
+    }
+
+    @Override
+    public void addBlock(int x, int y, int z) {
+        if (blockCount + 3 > blocks.length) blocks = Arrays.copyOf(blocks, blocks.length * 2);
+        blocks[blockCount++] = x;
+        blocks[blockCount++] = y;
+        blocks[blockCount++] = z;
+        veinEnds[veinCount - 1] = blockCount;
+    }
+
+    public int getVeinCount() {
+        return veinCount;
+    }
+
+    /**
+     * Places the planned veins.
+     *
+     * Blocks are written straight into the sections of their chunk, looked up once for every run of blocks in the
+     * same chunk, instead of through World.setBlockState with its chunk lookup, light update and notifications per
+     * block. Where an ore doesn't block or give off light the same way as the block it replaces, the height map of
+     * its chunk is redone and the light fixed after the whole plan is placed. An ore that would change where rain and
+     * snow stop is placed through the world, which keeps the precipitation height up to date; that never happens for
+     * stone-like hosts. Every block placed is counted in the OreIndex.
+     *
+     * Blocks in any chunk but the one being populated are sent to players if one of them is near enough to have been
+     * sent that chunk, like a neighbor a vein reaches into. The chunk being populated only counts as sent when the caller
+     * says so: it is already flagged populated by the time ores generate, so the flag says nothing about players.
+     *
+     * @param notifyClients send every changed block to players, needed when the chunk being populated may already
+     *                      have been sent to them (retrogen)
+     */
+    public void apply(World world, boolean notifyClients) {
+        boolean strict = ConfigurationHandler.worldGenStrictChunkBounds;
+        IChunkProvider chunkProvider = world.getChunkProvider();
+        int areaMinX = chunkX << 4;
+        int areaMinZ = chunkZ << 4;
+        int areaMaxX = areaMinX + 32;
+        int areaMaxZ = areaMinZ + 32;
+
+        OreIndex index = OreIndex.getInstance();
+        Chunk chunk = null;
+        int[] chunkSummary = null;
+        boolean chunkNotify = false;
+        int cachedChunkX = 0;
+        int cachedChunkZ = 0;
+        List<BlockPos> lightChecks = null;
+        List<Chunk> heightMapChunks = null;
+
+        int i = 0;
+        for (int vein = 0; vein < veinCount; vein++) {
+            OreDefinition definition = veinOres[vein];
+            int slot = index != null ? index.getSlot(definition.ore) : -1;
+            int placed = 0;
+
+            for (; i < veinEnds[vein]; i += 3) {
+                int x = blocks[i];
+                int y = blocks[i + 1];
+                int z = blocks[i + 2];
+                if (y < 0 || y >= 256) continue;
+
+                // checked before reading the block, which is what would load the chunk
+                if (x < areaMinX || x >= areaMaxX || z < areaMinZ || z >= areaMaxZ) {
+                    if (strict) {
+                        OreGenStats.recordClippedBlock();
+                        continue;
+                    }
+                    boolean loaded = chunkProvider.chunkExists(x >> 4, z >> 4);
+                    OreGenStats.recordOutsideWrite(!loaded);
+                    if (!loaded) {
+                        // goes through the world, which loads the chunk like WorldGenMinable would
+                        BlockPos pos = new BlockPos(x, y, z);
+                        if (placeThroughWorld(world, pos, definition)) {
+                            placed++;
+                            if (index != null) index.count(world, pos, definition.ore, 1);
+                        }
+                        continue;
+                    }
+                }
+
+                if (chunk == null || x >> 4 != cachedChunkX || z >> 4 != cachedChunkZ) {
+                    cachedChunkX = x >> 4;
+                    cachedChunkZ = z >> 4;
+                    chunk = world.getChunkFromChunkCoords(cachedChunkX, cachedChunkZ);
+                    chunkSummary = index != null ? index.getSummary(world, cachedChunkX, cachedChunkZ) : null;
+                    chunkNotify = notifyClients
+                            || (cachedChunkX != chunkX || cachedChunkZ != chunkZ) && isNearPlayer(world, cachedChunkX, cachedChunkZ);
+                }
+
+                // a missing section is all air
+                ExtendedBlockStorage storage = chunk.getBlockStorageArray()[y >> 4];
+                if (storage == null) continue;
+                IBlockState current = storage.get(x & 15, y & 15, z & 15);
+                if (!definition.generateIn.contains(current)) continue;
+
+                if (OreDefinition.stopsPrecipitation(current) != definition.oreStopsPrecipitation) {
+                    world.setBlockState(new BlockPos(x, y, z), definition.oreState, 2);
+                    placed++;
+                    if (chunkSummary != null && slot >= 0) OreIndex.count(chunkSummary, slot, y, 1);
+                    continue;
+                }
+
+                storage.set(x & 15, y & 15, z & 15, definition.oreState);
+                chunk.setChunkModified();
+                placed++;
+                if (chunkSummary != null && slot >= 0) OreIndex.count(chunkSummary, slot, y, 1);
+
+                boolean opacityChanges = current.getBlock().getLightOpacity() != definition.oreLightOpacity;
+                boolean lightChanges = opacityChanges || current.getBlock().getLightValue() != definition.oreLightValue;
+                if (opacityChanges) {
+                    if (heightMapChunks == null) heightMapChunks = new ArrayList<Chunk>();
+                    if (!heightMapChunks.contains(chunk)) heightMapChunks.add(chunk);
+                }
+                if (lightChanges || chunkNotify) {
+                    BlockPos pos = new BlockPos(x, y, z);
+                    if (lightChanges) {
+                        if (lightChecks == null) lightChecks = new ArrayList<BlockPos>();
+                        lightChecks.add(pos);
+                    }
+                    if (chunkNotify) world.markBlockForUpdate(pos);
+                }
+            }
+
+            OreGenStats.recordVein(definition.counters, placed);
+            if (ConfigurationHandler.worldGenDebugLogging) {
+                LogHelper.info("Generated: " + definition.name + " at - x:" + veinOrigins[vein * 3] + " y:" + veinOrigins[vein * 3 + 1]
+                        + " z:" + veinOrigins[vein * 3 + 2] + " (" + placed + " blocks)");
+            }
+        }
+
+        // the height map decides the sky light, so it goes first
+        if (heightMapChunks != null) {
+            for (Chunk changed : heightMapChunks) changed.generateHeightMap();
+        }
+        if (lightChecks != null) {
+            for (BlockPos pos : lightChecks) world.checkLight(pos);
+        }
+    }
+
+    // whether a player may have been sent the chunk, with a chunk to spare like Pregenerator
+    private static boolean isNearPlayer(World world, int chunkX, int chunkZ) {
+        if (world.playerEntities.isEmpty()) return false;
+        int viewDistance = MinecraftServer.getServer().getConfigurationManager().getViewDistance() + 1;
+        for (Object player : world.playerEntities) {
+            BlockPos pos = ((EntityPlayer) player).getPosition();
+            if (Math.abs((pos.getX() >> 4) - chunkX) <= viewDistance && Math.abs((pos.getZ() >> 4) - chunkZ) <= viewDistance) return true;
+        }
+        return false;
+    }
+
+    private static boolean placeThroughWorld(World world, BlockPos pos, OreDefinition definition) {
+        if (world.getBlockState(pos).getBlock().isReplaceableOreGen(world, pos, definition.generateIn)) {
+            world.setBlockState(pos, definition.oreState, 2);
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,43 @@
+package com.bigeebs.quantumprocessing.worldGen;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The deposits of one ore for the most recently used regions (worldgen.depositCacheSize). Chunks are generated close
+ * to each other, so a region is planned once and then asked for by all of its chunks.
+ *
+ * Used from the planner threads as well as the server thread, hence synchronized.
+ */
+public class DepositCache {
+
+    private final LinkedHashMap<Long, OreDeposit> deposits;
+    /** Deposits depend on the world seed, a different world starts over */
+    private long worldSeed;
+
+    public DepositCache(final int capacity) {
+        // access order, so the eldest entry is the least recently used
+        this.deposits = new LinkedHashMap<Long, OreDeposit>(capacity * 4 / 3 + 1, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, OreDeposit> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    public synchronized OreDeposit get(OreDefinition definition, long worldSeed, int regionX, int regionZ) {
+        if (worldSeed != this.worldSeed) {
+            deposits.clear();
+            this.worldSeed = worldSeed;
+        }
+
+        long key = (long) regionX & 0xFFFFFFFFL | ((long) regionZ & 0xFFFFFFFFL) << 32;
+        OreDeposit deposit = deposits.get(key);
+        OreGenStats.recordDepositLookup(deposit != null);
+        if (deposit == null) {
+            deposit = OreDeposit.plan(definition, definition.getDepositSeed(worldSeed, regionX, regionZ), regionX, regionZ);
+            deposits.put(key, deposit);
+        }
+        return deposit;
+    }
+}
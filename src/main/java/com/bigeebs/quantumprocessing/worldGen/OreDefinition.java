@@ -0,0 +1,141 @@
+package com.bigeebs.quantumprocessing.worldGen;
+
+import com.bigeebs.quantumprocessing.handler.ConfigurationHandler;
+import com.bigeebs.quantumprocessing.utility.LogHelper;
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+
+import java.util.Random;
+
+/**
+ * One row of the ore generation table: which ore generates in which dimension, how often, how big, at what height and
+ * in which blocks. Everything a chunk needs is built when the definition is created, one vein generator per possible
+ * vein size, so planning a chunk allocates little more than the plan itself. The ore block itself is only looked up
+ * by name when a world loads (resolve), once every mod has registered its blocks.
+ *
+ * Each ore draws its random numbers from its own stream, seeded from the world seed, the chunk and the ore, rather
+ * than from the shared chunk Random. Its veins therefore don't depend on which ores come before it or on when the
+ * chunk is planned.
+ *
+ * An ore can instead generate as rare large deposits laid out over regions of chunks (see OreDeposit). A chunk then
+ * only looks up the deposit of its region, kept in a small cache, and copies its slice of it.
+ */
+public class OreDefinition {
+
+    public final String name;
+    /** Registry name of the block to generate */
+    public final String oreName;
+    public final int dimension;
+    public final int minVeinSize;
+    public final int maxVeinSize;
+    public final int veinsPerChunk;
+    public final int minY;
+    public final int maxY;
+    /** The blocks the ore replaces */
+    public final BlockStateSet generateIn;
+    /** Also generate this ore in chunks generated before it was added, see RetroGenerator */
+    public final boolean retrogen;
+    /** How the deposits of this ore are laid out, null if it generates veinsPerChunk veins in every chunk instead */
+    public final OreDeposit.Settings deposits;
+
+    /** The block generated and what placing it needs, set by resolve(). Null until then, or if there is no such block */
+    public Block ore;
+    IBlockState oreState;
+    int oreLightOpacity;
+    int oreLightValue;
+    /** Whether the ore stops rain and snow, see Chunk.getPrecipitationHeight */
+    boolean oreStopsPrecipitation;
+    OreGenStats.OreCounters counters;
+    private boolean warned;
+    /** Mixed into the seed of this ore's random numbers. Taken from the name, so adding or reordering rows doesn't
+     *  move the other ores */
+    private final long oreId;
+    private final OreVeinGenerator[] generators;
+    private final DepositCache depositCache;
+
+    public OreDefinition(String name, String oreName, int dimension, int minVeinSize, int maxVeinSize, int veinsPerChunk, int minY, int maxY, BlockStateSet generateIn, boolean retrogen,
+                         OreDeposit.Settings deposits) {
+        this.name = name;
+        this.oreName = oreName;
+        this.dimension = dimension;
+        this.minVeinSize = minVeinSize;
+        this.maxVeinSize = maxVeinSize;
+        this.veinsPerChunk = veinsPerChunk;
+        this.minY = minY;
+        this.maxY = maxY;
+        this.generateIn = generateIn;
+        this.retrogen = retrogen;
+        this.deposits = deposits;
+
+        oreId = name.hashCode();
+        // vein sizes go from minVeinSize up to, but not including, maxVeinSize
+        generators = new OreVeinGenerator[Math.max(1, maxVeinSize - minVeinSize)];
+        for (int i = 0; i < generators.length; i++) {
+            generators[i] = new OreVeinGenerator(minVeinSize + i, ConfigurationHandler.worldGenVeinShapeTemplates);
+        }
+        depositCache = deposits != null ? new DepositCache(ConfigurationHandler.worldGenDepositCacheSize) : null;
+    }
+
+    /**
+     * Looks the ore block up by name
+     * @return false if there is no such block, the ore doesn't generate then
+     */
+    boolean resolve() {
+        ore = Block.getBlockFromName(oreName);
+        if (ore == null) {
+            if (!warned) LogHelper.warn("Not generating " + name + ": unknown block " + oreName);
+            warned = true;
+            return false;
+        }
+        oreState = ore.getDefaultState();
+        oreLightOpacity = ore.getLightOpacity();
+        oreLightValue = ore.getLightValue();
+        oreStopsPrecipitation = stopsPrecipitation(oreState);
+        counters = OreGenStats.forOre(ore);
+        return true;
+    }
+
+    /**
+     * Plans this ore's veins in the given chunk. Only depends on its arguments, not on the world or on other ores,
+     * so it gives the same plan on any thread and in any order
+     */
+    public void plan(long worldSeed, int chunkX, int chunkZ, ChunkOrePlan plan) {
+        if (depositCache != null) {
+            int regionX = OreDeposit.toRegion(chunkX, deposits.regionChunks);
+            int regionZ = OreDeposit.toRegion(chunkZ, deposits.regionChunks);
+            depositCache.get(this, worldSeed, regionX, regionZ).planSlice(this, chunkX, chunkZ, plan);
+            return;
+        }
+
+        Random random = new Random(getSeed(worldSeed, chunkX, chunkZ));
+        OreVeinGenerator gen = pickGenerator(random);
+        int heightRange = maxY - minY;
+
+        for (int i = 0; i < veinsPerChunk; i++ ) {
+            int xRand = chunkX * 16 + random.nextInt(16);
+            int yRand = (heightRange > 0 ? random.nextInt(heightRange) : 0) + minY;
+            int zRand = chunkZ * 16 + random.nextInt(16);
+            plan.beginVein(this, xRand, yRand, zRand);
+            gen.planVein(random, xRand, yRand, zRand, plan);
+        }
+    }
+
+    // the seed of this ore's random numbers in the given chunk
+    private long getSeed(long worldSeed, int chunkX, int chunkZ) {
+        return worldSeed ^ chunkX * 341873128712L ^ chunkZ * 132897987541L ^ oreId * 0x9E3779B97F4A7C15L;
+    }
+
+    // the seed of this ore's deposit in the given region, apart from the seeds of chunks
+    long getDepositSeed(long worldSeed, int regionX, int regionZ) {
+        return worldSeed ^ regionX * 198491317L ^ regionZ * 776531419L ^ (oreId + 1) * 0xC2B2AE3D27D4EB4FL;
+    }
+
+    static boolean stopsPrecipitation(IBlockState state) {
+        return state.getBlock().getMaterial().blocksMovement() || state.getBlock().getMaterial().isLiquid();
+    }
+
+    // a vein generator for a random vein size
+    OreVeinGenerator pickGenerator(Random random) {
+        return generators[generators.length > 1 ? random.nextInt(generators.length) : 0];
+    }
+}
@@ -0,0 +1,145 @@
+package com.bigeebs.quantumprocessing.worldGen;
+
+import net.minecraft.world.ChunkCoordIntPair;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * One large ore body, planned for a whole region of chunks at once instead of chunk by chunk.
+ *
+ * The world is cut into square regions of depositRegionChunks chunks. Each region has a deposit or not, decided from
+ * the world seed, the region and the ore; a deposit is a cluster of veins around one point. Its blocks are kept per
+ * chunk, and each chunk only places its own slice when populated: the 16x16 blocks that start 8 blocks into the chunk,
+ * the middle of the area population has loaded. Regions are lined up with those slices, so a chunk always gets its
+ * slice from exactly one region.
+ */
+public class OreDeposit {
+
+    /**
+     * How the deposits of an ore are laid out
+     */
+    public static class Settings {
+        /** Width of a region, in chunks */
+        public final int regionChunks;
+        /** Chance of a region having a deposit, in percent */
+        public final int chance;
+        /** Veins a deposit is made of */
+        public final int veins;
+        /** Furthest a vein starts from the centre of its deposit, in blocks. Half of it up and down */
+        public final int spread;
+
+        public Settings(int regionChunks, int chance, int veins, int spread) {
+            this.regionChunks = regionChunks;
+            this.chance = chance;
+            this.veins = veins;
+            this.spread = spread;
+        }
+    }
+
+    /** Regions without a deposit all share this one */
+    static final OreDeposit NONE = new OreDeposit(0, 0, 0, new HashMap<Long, int[]>());
+
+    private final int centerX;
+    private final int centerY;
+    private final int centerZ;
+    /** ChunkCoordIntPair.chunkXZ2Int -> x, y, z of the blocks in the slice of that chunk */
+    private final Map<Long, int[]> slices;
+
+    private OreDeposit(int centerX, int centerY, int centerZ, Map<Long, int[]> slices) {
+        this.centerX = centerX;
+        this.centerY = centerY;
+        this.centerZ = centerZ;
+        this.slices = slices;
+    }
+
+    /**
+     * The region the given chunk takes its slice from
+     */
+    static int toRegion(int chunk, int regionChunks) {
+        return chunk >= 0 ? chunk / regionChunks : (chunk + 1) / regionChunks - 1;
+    }
+
+    /**
+     * Plans the deposit of the given ore in the given region. Only depends on its arguments, like OreDefinition.plan
+     */
+    static OreDeposit plan(OreDefinition definition, long seed, int regionX, int regionZ) {
+        Settings settings = definition.deposits;
+        Random random = new Random(seed);
+        if (random.nextInt(100) >= settings.chance) return NONE;
+
+        // the blocks of the region, lined up with the chunk slices
+        int size = settings.regionChunks * 16;
+        final int minX = regionX * size + 8;
+        final int minZ = regionZ * size + 8;
+        final int maxX = minX + size;
+        final int maxZ = minZ + size;
+        int heightRange = definition.maxY - definition.minY;
+        int centerX = minX + random.nextInt(size);
+        int centerY = (heightRange > 0 ? random.nextInt(heightRange) : 0) + definition.minY;
+        int centerZ = minZ + random.nextInt(size);
+
+        final Map<Long, SliceBuilder> builders = new HashMap<Long, SliceBuilder>();
+        final Set<Long> seen = new HashSet<Long>();
+        OreVeinGenerator.BlockSink sink = new OreVeinGenerator.BlockSink() {
+            @Override
+            public void addBlock(int x, int y, int z) {
+                // veins overlap, a block is kept once. Blocks outside the region are cut off
+                if (x < minX || x >= maxX || z < minZ || z >= maxZ || y < 0 || y >= 256) return;
+                if (!seen.add((long) (x - minX) << 40 | (long) (z - minZ) << 16 | y)) return;
+
+                Long key = ChunkCoordIntPair.chunkXZ2Int((x - 8) >> 4, (z - 8) >> 4);
+                SliceBuilder builder = builders.get(key);
+                if (builder == null) {
+                    builder = new SliceBuilder();
+                    builders.put(key, builder);
+                }
+                builder.add(x, y, z);
+            }
+        };
+
+        int spread = settings.spread;
+        int verticalSpread = spread / 2;
+        for (int i = 0; i < settings.veins; i++) {
+            int x = centerX + random.nextInt(2 * spread + 1) - spread;
+            int y = centerY + random.nextInt(2 * verticalSpread + 1) - verticalSpread;
+            int z = centerZ + random.nextInt(2 * spread + 1) - spread;
+            // veins are centred 8 blocks along x and z from where they start
+            definition.pickGenerator(random).planVein(random, x - 8, y, z - 8, sink);
+        }
+
+        Map<Long, int[]> slices = new HashMap<Long, int[]>();
+        for (Map.Entry<Long, SliceBuilder> entry : builders.entrySet()) {
+            slices.put(entry.getKey(), Arrays.copyOf(entry.getValue().blocks, entry.getValue().length));
+        }
+        return new OreDeposit(centerX, centerY, centerZ, slices);
+    }
+
+    /**
+     * Adds the part of the deposit the given chunk places to its plan, as one vein
+     */
+    void planSlice(OreDefinition definition, int chunkX, int chunkZ, ChunkOrePlan plan) {
+        int[] slice = slices.get(ChunkCoordIntPair.chunkXZ2Int(chunkX, chunkZ));
+        if (slice == null) return;
+        plan.beginVein(definition, centerX, centerY, centerZ);
+        for (int i = 0; i < slice.length; i += 3) {
+            plan.addBlock(slice[i], slice[i + 1], slice[i + 2]);
+        }
+    }
+
+    private static class SliceBuilder {
+        private int[] blocks = new int[3 * 64];
+        private int length;
+
+        private void add(int x, int y, int z) {
+            if (length + 3 > blocks.length) blocks = Arrays.copyOf(blocks, blocks.length * 2);
+            blocks[length++] = x;
+            blocks[length++] = y;
+            blocks[length++] = z;
+        }
+    }
+}
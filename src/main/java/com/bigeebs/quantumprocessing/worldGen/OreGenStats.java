@@ -0,0 +1,142 @@
+package com.bigeebs.quantumprocessing.worldGen;
+
+import net.minecraft.block.Block;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counters for what OreGeneration does, kept instead of logging every vein. Counting doesn't allocate; the totals are
+ * only turned into text when someone asks for them (/qp worldgen).
+ */
+public class OreGenStats {
+
+    /**
+     * The counters of one ore
+     */
+    public static class OreCounters {
+        public final Block ore;
+        public long veinsAttempted;
+        /** Veins that replaced at least one block */
+        public long veinsPlaced;
+        public long blocksReplaced;
+
+        private OreCounters(Block ore) {
+            this.ore = ore;
+        }
+    }
+
+    private static final Map<Block, OreCounters> counters = new IdentityHashMap<Block, OreCounters>();
+    private static final List<OreCounters> countersInOrder = new ArrayList<OreCounters>();
+
+    /** Blocks of veins that reached past the populated 2x2 chunk area */
+    private static long outsideWrites;
+    /** Of those, the ones whose chunk wasn't loaded, so that writing them loaded and possibly generated it */
+    private static long chunkLoadingWrites;
+    /** Blocks left out because they were past the populated area and strictChunkBounds is on */
+    private static long clippedBlocks;
+
+    /** Lookups of the deposit of a region, and how many of them found it already planned */
+    private static long depositLookups;
+    private static long depositCacheHits;
+
+    private static long chunksGenerated;
+    private static long totalNanos;
+    private static long maxNanos;
+    // the same two totals, kept for timing runs like /qp pregen
+    private static long lifetimeChunks;
+    private static long lifetimeNanos;
+
+    /**
+     * The counters of the given ore, created the first time it generates
+     */
+    public static synchronized OreCounters forOre(Block ore) {
+        OreCounters oreCounters = counters.get(ore);
+        if (oreCounters == null) {
+            oreCounters = new OreCounters(ore);
+            counters.put(ore, oreCounters);
+            countersInOrder.add(oreCounters);
+        }
+        return oreCounters;
+    }
+
+    public static synchronized void recordVein(OreCounters oreCounters, int blocksReplaced) {
+        oreCounters.veinsAttempted++;
+        if (blocksReplaced > 0) oreCounters.veinsPlaced++;
+        oreCounters.blocksReplaced += blocksReplaced;
+    }
+
+    public static synchronized void recordOutsideWrite(boolean loadsChunk) {
+        outsideWrites++;
+        if (loadsChunk) chunkLoadingWrites++;
+    }
+
+    public static synchronized void recordClippedBlock() {
+        clippedBlocks++;
+    }
+
+    public static synchronized void recordDepositLookup(boolean cached) {
+        depositLookups++;
+        if (cached) depositCacheHits++;
+    }
+
+    public static synchronized void recordChunk(long nanos) {
+        chunksGenerated++;
+        totalNanos += nanos;
+        lifetimeChunks++;
+        lifetimeNanos += nanos;
+        if (nanos > maxNanos) maxNanos = nanos;
+    }
+
+    /**
+     * Time spent generating ores since the server started, not cleared by reset
+     */
+    public static synchronized long getTotalNanos() {
+        return lifetimeNanos;
+    }
+
+    /**
+     * Chunks ores were generated in since the server started, not cleared by reset
+     */
+    public static synchronized long getChunksGenerated() {
+        return lifetimeChunks;
+    }
+
+    public static synchronized void reset() {
+        for (OreCounters oreCounters : countersInOrder) {
+            oreCounters.veinsAttempted = 0;
+            oreCounters.veinsPlaced = 0;
+            oreCounters.blocksReplaced = 0;
+        }
+        outsideWrites = 0;
+        chunkLoadingWrites = 0;
+        clippedBlocks = 0;
+        depositLookups = 0;
+        depositCacheHits = 0;
+        chunksGenerated = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+    }
+
+    /**
+     * The totals as readable lines, one for the chunks and one per ore
+     */
+    public static synchronized List<String> dump() {
+        List<String> lines = new ArrayList<String>();
+        double averageMs = chunksGenerated == 0 ? 0 : totalNanos / 1.0E6 / chunksGenerated;
+        lines.add(String.format("Chunks: %d, %.3f ms avg, %.3f ms max, %.1f ms total",
+                chunksGenerated, averageMs, maxNanos / 1.0E6, totalNanos / 1.0E6));
+        lines.add("Blocks past the populated area: " + outsideWrites + " (" + chunkLoadingWrites + " loaded a chunk), "
+                + clippedBlocks + " clipped");
+        if (depositLookups > 0) {
+            lines.add("Deposit regions: " + (depositLookups - depositCacheHits) + " planned, " + depositCacheHits + " cache hits");
+        }
+        for (OreCounters oreCounters : countersInOrder) {
+            lines.add(String.format("%s: %d/%d veins placed, %d blocks",
+                    oreCounters.ore.getLocalizedName(), oreCounters.veinsPlaced, oreCounters.veinsAttempted, oreCounters.blocksReplaced));
+        }
+        return lines;
+    }
+}
@@ -1,82 +1,233 @@
 package com.bigeebs.quantumprocessing.worldGen;
 
-import com.bigeebs.quantumprocessing.QuantumProcessing;
-import com.bigeebs.quantumprocessing.block.*;
+import com.bigeebs.quantumprocessing.handler.ConfigurationHandler;
 import com.bigeebs.quantumprocessing.init.ModBlocks;
+import com.bigeebs.quantumprocessing.names.BlockNames;
 import com.bigeebs.quantumprocessing.utility.LogHelper;
 import net.minecraft.block.Block;
-import net.minecraft.block.state.pattern.BlockHelper;
-import net.minecraft.init.Blocks;
-import net.minecraft.util.BlockPos;
+import net.minecraft.util.IntHashMap;
 import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
 import net.minecraft.world.chunk.IChunkProvider;
-import net.minecraft.world.gen.feature.WorldGenMinable;
+import net.minecraftforge.common.config.ConfigCategory;
+import net.minecraftforge.common.config.Configuration;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.IWorldGenerator;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
 /**
  * Created by Andrew.Ebert on 9/16/2015.
+ *
+ * Generates the ores of the ore generation table. Each row is read from its own config category under "worldgen"
+ * once, when the generator is created. The block each row generates and the blocks it generates in are only looked
+ * up when a world loads, once every mod has registered its blocks and every block has its final id; the rows whose
+ * ore exists are then grouped by dimension.
+ *
+ * The veins of a chunk are planned first (see VeinPlanner), on worker threads as soon as a chunk that still needs
+ * populating loads, and placed when the chunk is populated. Also registered on the Forge event bus for the chunk and
+ * world events.
  */
 public class OreGeneration implements IWorldGenerator {
 
-    @Override
-    public void generate(Random random, int chunkX, int chunkZ, World world, IChunkProvider chunkGenerator, IChunkProvider chunkProvider) {
-        switch (world.provider.getDimensionId())
-        {
-            case 0:
-                generateOverworld(world, random, chunkX, chunkZ);
-                break;
-            case -1:
-                generateNether(world, random, chunkX, chunkZ);
-                break;
-            case 1:
-                generateEnd(world, random, chunkX, chunkZ);
-                break;
+    private static final String STONE = "minecraft:stone";
+    private static final String NETHERRACK = "minecraft:netherrack";
+    private static final String END_STONE = "minecraft:end_stone";
+    /** Added to the name of an ore for its row in the Nether and End */
+    private static final String NETHER = "Nether";
+    private static final String END = "End";
+
+    /** Every enabled row of the table, in table order */
+    private final List<OreDefinition> definitions;
+    /** dimension id -> OreDefinition[] in table order, of the rows whose ore was found when the last world loaded */
+    private IntHashMap definitionsByDimension = new IntHashMap();
+    /** dimension id -> OreDefinition[] of those rows with retrogen on, in table order */
+    private IntHashMap retrogenDefinitionsByDimension = new IntHashMap();
+    private final VeinPlanner planner = new VeinPlanner(ConfigurationHandler.worldGenPlanningThreads);
+    /** Registry names of every block generated, once each, in table order */
+    private final List<String> oreNames = new ArrayList<String>();
+    /** The host block sets of the rows, by their block names, resolved when a world loads */
+    private final Map<String, BlockStateSet> hostSets = new HashMap<String, BlockStateSet>();
+
+    public OreGeneration() {
+        definitions = loadDefinitions(ConfigurationHandler.configuration, hostSets);
+        for (OreDefinition definition : definitions) {
+            if (!oreNames.contains(definition.oreName)) oreNames.add(definition.oreName);
         }
     }
 
-    public void generateOverworld(World world, Random random, int x, int z){
-        LogHelper.info("Generating Overworld Ores.");
-        generateOres(ModBlocks.adamantiumOre, world, random, x, z, 2, 10, 5, 0, 100, Blocks.stone);
-        generateOres(ModBlocks.aluminumOre, world, random, x, z, 2, 10, 5, 0, 100, Blocks.stone);
-        generateOres(ModBlocks.copperOre, world, random, x, z, 2, 10, 5, 0, 100, Blocks.stone);
-        generateOres(ModBlocks.leadOre, world, random, x, z, 2, 10, 5, 0, 100, Blocks.stone);
-        generateOres(ModBlocks.plutoniumOre, world, random, x, z, 2, 10, 5, 0, 100, Blocks.stone);
-        generateOres(ModBlocks.uraniumOre, world, random, x, z, 2, 10, 5, 0, 100, Blocks.stone);
-        generateOres(ModBlocks.vibraniumOre, world, random, x, z, 2, 10, 5, 0, 100, Blocks.stone);
+    private static IntHashMap groupByDimension(List<OreDefinition> definitions) {
+        IntHashMap definitionsByDimension = new IntHashMap();
+        Map<Integer, List<OreDefinition>> byDimension = new HashMap<Integer, List<OreDefinition>>();
+        for (OreDefinition definition : definitions) {
+            List<OreDefinition> dimensionDefinitions = byDimension.get(definition.dimension);
+            if (dimensionDefinitions == null) {
+                dimensionDefinitions = new ArrayList<OreDefinition>();
+                byDimension.put(definition.dimension, dimensionDefinitions);
+            }
+            dimensionDefinitions.add(definition);
+        }
+        for (Map.Entry<Integer, List<OreDefinition>> entry : byDimension.entrySet()) {
+            definitionsByDimension.addKey(entry.getKey(), entry.getValue().toArray(new OreDefinition[entry.getValue().size()]));
+        }
+        return definitionsByDimension;
     }
 
-    public void generateNether(World world, Random random, int x, int z){
-
+    public List<String> getOreNames() {
+        return oreNames;
     }
 
-    public void generateEnd(World world, Random random, int x, int z){
-
+    /**
+     * Whether any ore of the given dimension has retrogen turned on
+     */
+    public boolean hasRetrogen(int dimension) {
+        return retrogenDefinitionsByDimension.containsItem(dimension);
     }
 
-    private void generateOres(QPBlock block, World world, Random random, int chunkX, int chunkZ, int minVienSize, int maxVienSize, int chance, int minY, int maxY, Block generateIn){
-        int vienSize = minVienSize + random.nextInt(maxVienSize - minVienSize);
-        int heightRange = maxY - minY;
-        WorldGenMinable gen = new WorldGenMinable(block.getDefaultState(), vienSize, BlockHelper.forBlock(generateIn));
-
-        for (int i = 0; i < chance; i++ ) {
-            int xRand = chunkX * 16 + random.nextInt(16);
-            int yRand = random.nextInt(heightRange) + minY;
-            int zRand = chunkZ * 16 + random.nextInt(16);
-            gen.generate(world, random, new BlockPos(xRand, yRand, zRand));
-            LogHelper.info("Generated: " + block.getUnwrappedUnlocalizedName(block.getUnlocalizedName()) + " at - x:" + xRand + " y:" + yRand + " z:" + zRand);
-        }
+    /**
+     * Generates the ores with retrogen turned on in an already populated chunk. Their veins are the same as they
+     * would have been had the chunk been generated with them
+     */
+    public void retrogen(World world, int chunkX, int chunkZ) {
+        OreDefinition[] definitions = (OreDefinition[]) retrogenDefinitionsByDimension.lookup(world.provider.getDimensionId());
+        if (definitions == null) return;
+
+        long start = System.nanoTime();
+        VeinPlanner.plan(definitions, world.getSeed(), chunkX, chunkZ).apply(world, true);
+        OreGenStats.recordChunk(System.nanoTime() - start);
     }
-}
-
 
+    @Override
+    public void generate(Random random, int chunkX, int chunkZ, World world, IChunkProvider chunkGenerator, IChunkProvider chunkProvider) {
+        OreDefinition[] definitions = (OreDefinition[]) definitionsByDimension.lookup(world.provider.getDimensionId());
+        if (definitions == null) return;
+
+        long start = System.nanoTime();
+        if (ConfigurationHandler.worldGenDebugLogging) LogHelper.info("Generating ores in dimension " + world.provider.getDimensionId() + ".");
+        ChunkOrePlan plan = planner.takePlan(definitions, world.provider.getDimensionId(), world.getSeed(), chunkX, chunkZ);
+        plan.apply(world, false);
+        OreGenStats.recordChunk(System.nanoTime() - start);
+    }
 
+    // A chunk that isn't populated yet will be soon, once its neighbors are there
+    @SubscribeEvent
+    public void onChunkLoad(ChunkEvent.Load event) {
+        if (event.world.isRemote) return;
+        Chunk chunk = event.getChunk();
+        if (chunk.isTerrainPopulated()) return;
 
+        int dimension = event.world.provider.getDimensionId();
+        OreDefinition[] definitions = (OreDefinition[]) definitionsByDimension.lookup(dimension);
+        if (definitions != null) planner.planAhead(definitions, dimension, event.world.getSeed(), chunk.xPosition, chunk.zPosition);
+    }
 
+    @SubscribeEvent
+    public void onChunkUnload(ChunkEvent.Unload event) {
+        if (event.world.isRemote) return;
+        planner.discard(event.world.provider.getDimensionId(), event.getChunk().xPosition, event.getChunk().zPosition);
+    }
 
+    // By now every mod has registered its blocks and FML has given them the ids of this save, which the host sets
+    // are made of. Done for every world, as the ids may differ from the last save loaded
+    @SubscribeEvent
+    public void onWorldLoad(WorldEvent.Load event) {
+        if (event.world.isRemote) return;
+        for (BlockStateSet hostSet : hostSets.values()) {
+            if (hostSet.resolve() == 0) LogHelper.warn("Ores can't generate in " + hostSet + ", none of these blocks exist");
+        }
 
+        List<OreDefinition> found = new ArrayList<OreDefinition>();
+        List<OreDefinition> retrogenFound = new ArrayList<OreDefinition>();
+        for (OreDefinition definition : definitions) {
+            if (!definition.resolve()) continue;
+            found.add(definition);
+            if (definition.retrogen) retrogenFound.add(definition);
+        }
+        definitionsByDimension = groupByDimension(found);
+        retrogenDefinitionsByDimension = groupByDimension(retrogenFound);
+    }
 
+    @SubscribeEvent
+    public void onWorldUnload(WorldEvent.Unload event) {
+        if (event.world.isRemote) return;
+        planner.discardAll(event.world.provider.getDimensionId());
+    }
 
+    /**
+     * Reads the ore generation table. The defaults are the ores QP has always generated, with the same vein sizes,
+     * counts and heights, and a few of them in the Nether and the End
+     */
+    private static List<OreDefinition> loadDefinitions(Configuration configuration, Map<String, BlockStateSet> hostSets) {
+        List<OreDefinition> definitions = new ArrayList<OreDefinition>();
+        addDefinition(definitions, hostSets, configuration, BlockNames.ADAMANTIUM_ORE, ModBlocks.adamantiumOre, true, 0, 2, 10, 5, 0, 100, STONE);
+        addDefinition(definitions, hostSets, configuration, BlockNames.ALUMINUM_ORE, ModBlocks.aluminumOre, true, 0, 2, 10, 5, 0, 100, STONE);
+        addDefinition(definitions, hostSets, configuration, BlockNames.COPPER_ORE, ModBlocks.copperOre, true, 0, 2, 10, 5, 0, 100, STONE);
+        addDefinition(definitions, hostSets, configuration, BlockNames.LEAD_ORE, ModBlocks.leadOre, true, 0, 2, 10, 5, 0, 100, STONE);
+        addDefinition(definitions, hostSets, configuration, BlockNames.PLUTONIUM_ORE, ModBlocks.plutoniumOre, true, 0, 2, 10, 5, 0, 100, STONE);
+        addDefinition(definitions, hostSets, configuration, BlockNames.URANIUM_ORE, ModBlocks.uraniumOre, true, 0, 2, 10, 5, 0, 100, STONE);
+        addDefinition(definitions, hostSets, configuration, BlockNames.VIBRANIUM_ORE, ModBlocks.vibraniumOre, true, 0, 2, 10, 5, 0, 100, STONE);
+        // tin has never generated, it stays off unless turned on
+        addDefinition(definitions, hostSets, configuration, BlockNames.TIN_ORE, ModBlocks.tinOre, false, 0, 2, 10, 5, 0, 100, STONE);
+
+        addDefinition(definitions, hostSets, configuration, BlockNames.PLUTONIUM_ORE + NETHER, ModBlocks.plutoniumOre, true, -1, 2, 8, 4, 10, 118, NETHERRACK);
+        addDefinition(definitions, hostSets, configuration, BlockNames.URANIUM_ORE + NETHER, ModBlocks.uraniumOre, true, -1, 2, 8, 4, 10, 118, NETHERRACK);
+        addDefinition(definitions, hostSets, configuration, BlockNames.ADAMANTIUM_ORE + END, ModBlocks.adamantiumOre, true, 1, 2, 8, 3, 0, 128, END_STONE);
+        addDefinition(definitions, hostSets, configuration, BlockNames.VIBRANIUM_ORE + END, ModBlocks.vibraniumOre, true, 1, 2, 8, 3, 0, 128, END_STONE);
+
+        if (configuration.hasChanged()) configuration.save();
+        return definitions;
+    }
 
+    private static void addDefinition(List<OreDefinition> definitions, Map<String, BlockStateSet> hostSets, Configuration configuration,
+                                      String name, Block defaultOre, boolean enabled, int dimension, int minVeinSize, int maxVeinSize,
+                                      int veinsPerChunk, int minY, int maxY, String defaultGenerateIn) {
+        String category = ConfigurationHandler.CATEGORY_WORLDGEN + Configuration.CATEGORY_SPLITTER + name;
+        ConfigCategory configCategory = configuration.getCategory(category);
+        configCategory.setComment("Generation of " + name);
+        configCategory.setRequiresMcRestart(true);
+
+        enabled = configuration.getBoolean("enabled", category, enabled, "Generate this ore");
+        String oreName = configuration.getString("ore", category, String.valueOf(Block.blockRegistry.getNameForObject(defaultOre)), "Registry name of the block to generate");
+        dimension = configuration.getInt("dimension", category, dimension, Integer.MIN_VALUE, Integer.MAX_VALUE, "Dimension id to generate in");
+        minVeinSize = configuration.getInt("minVeinSize", category, minVeinSize, 1, 64, "Smallest vein, in blocks");
+        maxVeinSize = configuration.getInt("maxVeinSize", category, maxVeinSize, 1, 64, "Veins are smaller than this, unless it is not above minVeinSize");
+        veinsPerChunk = configuration.getInt("veinsPerChunk", category, veinsPerChunk, 0, 128, "Veins attempted per chunk");
+        minY = configuration.getInt("minY", category, minY, 0, 255, "Lowest height a vein starts at");
+        maxY = configuration.getInt("maxY", category, maxY, 0, 256, "Veins start below this height");
+        String[] generateInNames = configuration.getStringList("generateIn", category, new String[] {defaultGenerateIn},
+                "Registry names of the blocks the ore replaces, for example modded stones besides minecraft:stone");
+        boolean retrogen = configuration.getBoolean("retrogen", category, false,
+                "Also add this ore to existing chunks, see worldgen.retrogen. Only turn it on for ores the world doesn't have yet, or they end up there twice");
+        boolean deposits = configuration.getBoolean("deposits", category, false,
+                "Generate this ore as rare large deposits spread over regions of chunks, instead of veinsPerChunk veins in every chunk");
+        int depositRegionSize = configuration.getInt("depositRegionSize", category, 8, 1, 64, "Width of a deposit region, in chunks");
+        int depositChance = configuration.getInt("depositChance", category, 20, 0, 100, "Chance of a region having a deposit, in percent");
+        int depositVeins = configuration.getInt("depositVeins", category, 40, 1, 1024, "Veins a deposit is made of");
+        int depositSpread = configuration.getInt("depositSpread", category, 12, 0, 64,
+                "Furthest a vein of a deposit starts from its centre, in blocks. Half of it up and down");
+
+        if (!enabled || !deposits && veinsPerChunk == 0) return;
+
+        BlockStateSet generateIn = getHostSet(hostSets, generateInNames);
+        OreDeposit.Settings depositSettings = deposits ? new OreDeposit.Settings(depositRegionSize, depositChance, depositVeins, depositSpread) : null;
+        definitions.add(new OreDefinition(name, oreName.trim(), dimension, minVeinSize, maxVeinSize, veinsPerChunk, minY, maxY, generateIn, retrogen, depositSettings));
+    }
 
+    // rows with the same host blocks share one set
+    private static BlockStateSet getHostSet(Map<String, BlockStateSet> hostSets, String[] blockNames) {
+        String key = Arrays.toString(blockNames);
+        BlockStateSet set = hostSets.get(key);
+        if (set == null) {
+            set = new BlockStateSet(blockNames);
+            hostSets.put(key, set);
+        }
+        return set;
+    }
+}
@@ -0,0 +1,242 @@
+package com.bigeebs.quantumprocessing.worldGen;
+
+import net.minecraft.block.Block;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.util.BlockPos;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraftforge.event.world.BlockEvent;
+import net.minecraftforge.event.world.ChunkDataEvent;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.eventhandler.EventPriority;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * How many blocks of each generated ore every chunk holds, per 16 block band of height, so prospecting never has to
+ * look at the blocks themselves.
+ *
+ * A chunk is indexed from the moment it loads unpopulated: ChunkOrePlan.apply counts every ore block it places, and
+ * players breaking or placing ore blocks keep the counts current. Blocks removed any other way (explosions, other
+ * mods) are not noticed. The counts are saved in the chunk NBT. Chunks generated before the index existed have none
+ * and stay unindexed, prospecting reports them as such.
+ *
+ * The ores are given by registry name, which is also what the counts are saved under, and looked up when a world
+ * loads, like OreGeneration does.
+ *
+ * Registered on the Forge bus.
+ */
+public class OreIndex {
+
+    /** Height bands of 16 blocks */
+    public static final int BANDS = 16;
+
+    private static final String NBT_KEY = "QPOreIndex";
+
+    private static OreIndex instance;
+
+    private final String[] oreNames;
+    /** The blocks of oreNames, null for names no block has */
+    private final Block[] ores;
+    private final Map<Block, Integer> slots = new IdentityHashMap<Block, Integer>();
+    /** dimension id -> (chunk key -> block count per ore and band, ore * BANDS + band) of the loaded indexed chunks */
+    private final Map<Integer, Map<Long, int[]>> summaries = new HashMap<Integer, Map<Long, int[]>>();
+    /** chunk keys that were unloaded and are about to be saved for the last time */
+    private final Map<Integer, Set<Long>> unloading = new HashMap<Integer, Set<Long>>();
+
+    public OreIndex(List<String> oreNames) {
+        this.oreNames = oreNames.toArray(new String[oreNames.size()]);
+        this.ores = new Block[this.oreNames.length];
+        instance = this;
+    }
+
+    public static OreIndex getInstance() {
+        return instance;
+    }
+
+    /**
+     * The indexed ores, in the order of their counts. An ore whose block doesn't exist is null and never counted
+     */
+    public Block[] getOres() {
+        return ores;
+    }
+
+    /**
+     * The position of the given ore in the counts, -1 if it isn't indexed
+     */
+    public int getSlot(Block ore) {
+        Integer slot = slots.get(ore);
+        return slot == null ? -1 : slot;
+    }
+
+    /**
+     * The counts of a loaded chunk, null if it isn't indexed
+     */
+    int[] getSummary(World world, int chunkX, int chunkZ) {
+        Map<Long, int[]> chunks = summaries.get(world.provider.getDimensionId());
+        return chunks == null ? null : chunks.get(ChunkCoordIntPair.chunkXZ2Int(chunkX, chunkZ));
+    }
+
+    static void count(int[] summary, int slot, int y, int amount) {
+        int index = slot * BANDS + (y >> 4);
+        summary[index] = Math.max(0, summary[index] + amount);
+    }
+
+    /**
+     * Counts an ore block placed or removed at the given position, if its chunk is indexed
+     */
+    public void count(World world, BlockPos pos, Block ore, int amount) {
+        int slot = getSlot(ore);
+        if (slot < 0) return;
+        int[] summary = getSummary(world, pos.getX() >> 4, pos.getZ() >> 4);
+        if (summary != null) count(summary, slot, pos.getY(), amount);
+    }
+
+    /**
+     * Adds up the counts of the chunks within the given radius of a chunk
+     * @param totals block count per ore and band, ore * BANDS + band
+     * @return the number of chunks in the area without counts, because they aren't indexed or not loaded
+     */
+    public int query(World world, int centerChunkX, int centerChunkZ, int radius, int[] totals) {
+        Map<Long, int[]> chunks = summaries.get(world.provider.getDimensionId());
+        int missing = 0;
+        for (int chunkX = centerChunkX - radius; chunkX <= centerChunkX + radius; chunkX++) {
+            for (int chunkZ = centerChunkZ - radius; chunkZ <= centerChunkZ + radius; chunkZ++) {
+                int[] summary = chunks == null ? null : chunks.get(ChunkCoordIntPair.chunkXZ2Int(chunkX, chunkZ));
+                if (summary == null) {
+                    missing++;
+                    continue;
+                }
+                for (int i = 0; i < summary.length; i++) totals[i] += summary[i];
+            }
+        }
+        return missing;
+    }
+
+    @SubscribeEvent
+    public void onChunkDataLoad(ChunkDataEvent.Load event) {
+        World world = event.world;
+        if (world.isRemote || !event.getData().hasKey(NBT_KEY)) return;
+
+        NBTTagCompound tag = event.getData().getCompoundTag(NBT_KEY);
+        int[] summary = new int[ores.length * BANDS];
+        for (int slot = 0; slot < ores.length; slot++) {
+            int[] bands = tag.getIntArray(oreNames[slot]);
+            System.arraycopy(bands, 0, summary, slot * BANDS, Math.min(bands.length, BANDS));
+        }
+        int dimension = world.provider.getDimensionId();
+        long key = ChunkCoordIntPair.chunkXZ2Int(event.getChunk().xPosition, event.getChunk().zPosition);
+        getChunks(unloading, dimension).remove(key);
+        getSummaries(dimension).put(key, summary);
+    }
+
+    // A chunk that loads unpopulated has no ores yet, from here on everything placed in it is counted
+    @SubscribeEvent
+    public void onChunkLoad(ChunkEvent.Load event) {
+        World world = event.world;
+        Chunk chunk = event.getChunk();
+        if (world.isRemote || chunk.isTerrainPopulated()) return;
+
+        Map<Long, int[]> chunks = getSummaries(world.provider.getDimensionId());
+        long key = ChunkCoordIntPair.chunkXZ2Int(chunk.xPosition, chunk.zPosition);
+        if (!chunks.containsKey(key)) chunks.put(key, new int[ores.length * BANDS]);
+    }
+
+    @SubscribeEvent
+    public void onChunkDataSave(ChunkDataEvent.Save event) {
+        World world = event.world;
+        if (world.isRemote) return;
+
+        int dimension = world.provider.getDimensionId();
+        long key = ChunkCoordIntPair.chunkXZ2Int(event.getChunk().xPosition, event.getChunk().zPosition);
+        Map<Long, int[]> chunks = summaries.get(dimension);
+        int[] summary = chunks == null ? null : chunks.get(key);
+        if (summary == null) return;
+
+        NBTTagCompound tag = new NBTTagCompound();
+        for (int slot = 0; slot < ores.length; slot++) {
+            int[] bands = new int[BANDS];
+            System.arraycopy(summary, slot * BANDS, bands, 0, BANDS);
+            for (int count : bands) {
+                if (count > 0) {
+                    tag.setIntArray(oreNames[slot], bands);
+                    break;
+                }
+            }
+        }
+        event.getData().setTag(NBT_KEY, tag);
+
+        Set<Long> unloadingChunks = unloading.get(dimension);
+        if (unloadingChunks != null && unloadingChunks.remove(key)) chunks.remove(key);
+    }
+
+    // The chunk is saved right after this, it still needs its counts until then
+    @SubscribeEvent
+    public void onChunkUnload(ChunkEvent.Unload event) {
+        World world = event.world;
+        if (world.isRemote) return;
+
+        int dimension = world.provider.getDimensionId();
+        long key = ChunkCoordIntPair.chunkXZ2Int(event.getChunk().xPosition, event.getChunk().zPosition);
+        Map<Long, int[]> chunks = summaries.get(dimension);
+        if (chunks != null && chunks.containsKey(key)) getChunks(unloading, dimension).add(key);
+    }
+
+    // Before the first chunk of the world loads, and after every mod has registered its blocks
+    @SubscribeEvent
+    public void onWorldLoad(WorldEvent.Load event) {
+        if (event.world.isRemote) return;
+        slots.clear();
+        for (int slot = 0; slot < oreNames.length; slot++) {
+            ores[slot] = Block.getBlockFromName(oreNames[slot]);
+            if (ores[slot] != null) slots.put(ores[slot], slot);
+        }
+    }
+
+    @SubscribeEvent
+    public void onWorldUnload(WorldEvent.Unload event) {
+        if (event.world.isRemote) return;
+        int dimension = event.world.provider.getDimensionId();
+        summaries.remove(dimension);
+        unloading.remove(dimension);
+    }
+
+    // Lowest priority, so a break another mod cancels isn't counted
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public void onBlockBreak(BlockEvent.BreakEvent event) {
+        if (event.world.isRemote) return;
+        count(event.world, event.pos, event.state.getBlock(), -1);
+    }
+
+    @SubscribeEvent(priority = EventPriority.LOWEST)
+    public void onBlockPlace(BlockEvent.PlaceEvent event) {
+        if (event.world.isRemote) return;
+        count(event.world, event.pos, event.placedBlock.getBlock(), 1);
+    }
+
+    private Map<Long, int[]> getSummaries(int dimension) {
+        Map<Long, int[]> chunks = summaries.get(dimension);
+        if (chunks == null) {
+            chunks = new HashMap<Long, int[]>();
+            summaries.put(dimension, chunks);
+        }
+        return chunks;
+    }
+
+    private static Set<Long> getChunks(Map<Integer, Set<Long>> chunksByDimension, int dimension) {
+        Set<Long> chunks = chunksByDimension.get(dimension);
+        if (chunks == null) {
+            chunks = new HashSet<Long>();
+            chunksByDimension.put(dimension, chunks);
+        }
+        return chunks;
+    }
+}
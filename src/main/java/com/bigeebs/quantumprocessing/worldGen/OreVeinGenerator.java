@@ -0,0 +1,141 @@
+package com.bigeebs.quantumprocessing.worldGen;
+
+import net.minecraft.util.MathHelper;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Works out the shape of one ore vein of a fixed size, exactly like WorldGenMinable does, using the same random numbers
+ * in the same order. It doesn't touch the world: the blocks the vein covers are added to a ChunkOrePlan, which checks
+ * and places them later (ChunkOrePlan.apply). That makes planning safe to run off the server thread.
+ *
+ * Like WorldGenMinable, the vein is centred 8 blocks further along x and z than the given position, so a vein started
+ * in the chunk being populated sits in the middle of the 2x2 chunk area that population guarantees is loaded.
+ *
+ * The shape of a vein doesn't depend on where it is, only on the random numbers. So instead of doing the trigonometry
+ * for every vein, a bank of shapes per vein size can be worked out once (worldgen.veinShapeTemplates) and each vein
+ * picks one of them with a single random number. A shape is stored as the offsets of its blocks from the vein's
+ * position, each packed into an int, with blocks the algorithm visits more than once kept only the first time. The
+ * shapes are samples of the same algorithm, so the ore yield is statistically the same.
+ */
+public class OreVeinGenerator {
+
+    /** Anything the blocks of a vein can be added to */
+    interface BlockSink {
+        void addBlock(int x, int y, int z);
+    }
+
+    // offsets are stored +128 in one byte each
+    private static final int OFFSET_BIAS = 128;
+    /** vein size -> shape bank, shared by every ore using that size */
+    private static final Map<Integer, int[][]> shapeBanks = new HashMap<Integer, int[][]>();
+
+    private final int numberOfBlocks;
+    /** The precomputed shapes to pick from, null to compute every vein */
+    private final int[][] shapes;
+
+    /**
+     * @param templates shapes to precompute for this size, 0 to compute every vein like WorldGenMinable
+     */
+    public OreVeinGenerator(int numberOfBlocks, int templates) {
+        this.numberOfBlocks = numberOfBlocks;
+        this.shapes = templates > 0 ? getShapeBank(numberOfBlocks, templates) : null;
+    }
+
+    // Made on the server thread when the ore table loads, the planner threads only read them
+    private static synchronized int[][] getShapeBank(int numberOfBlocks, int templates) {
+        int[][] bank = shapeBanks.get(numberOfBlocks);
+        if (bank == null || bank.length != templates) {
+            bank = new int[templates][];
+            // a fixed seed per size, so the bank and therefore the world only depend on the world seed
+            Random random = new Random(0x51504F5245L + numberOfBlocks);
+            OreVeinGenerator generator = new OreVeinGenerator(numberOfBlocks, 0);
+            for (int i = 0; i < templates; i++) {
+                final Set<Integer> offsets = new LinkedHashSet<Integer>();
+                generator.planExactVein(random, 0, 0, 0, new BlockSink() {
+                    @Override
+                    public void addBlock(int x, int y, int z) {
+                        offsets.add((x + OFFSET_BIAS) << 16 | (y + OFFSET_BIAS) << 8 | (z + OFFSET_BIAS));
+                    }
+                });
+                int[] shape = new int[offsets.size()];
+                int j = 0;
+                for (int offset : offsets) shape[j++] = offset;
+                bank[i] = shape;
+            }
+            shapeBanks.put(numberOfBlocks, bank);
+        }
+        return bank;
+    }
+
+    /**
+     * Adds every block of the vein started at the given position to the plan
+     */
+    public void planVein(Random random, int posX, int posY, int posZ, BlockSink plan) {
+        if (shapes == null) {
+            planExactVein(random, posX, posY, posZ, plan);
+            return;
+        }
+
+        int[] shape = shapes[random.nextInt(shapes.length)];
+        int baseX = posX - OFFSET_BIAS;
+        int baseY = posY - OFFSET_BIAS;
+        int baseZ = posZ - OFFSET_BIAS;
+        for (int offset : shape) {
+            plan.addBlock(baseX + (offset >> 16 & 255), baseY + (offset >> 8 & 255), baseZ + (offset & 255));
+        }
+    }
+
+    /**
+     * Adds every block of the vein started at the given position, in the order WorldGenMinable would visit them
+     */
+    void planExactVein(Random random, int posX, int posY, int posZ, BlockSink plan) {
+        float angle = random.nextFloat() * (float)Math.PI;
+        double xStart = (double)((float)(posX + 8) + MathHelper.sin(angle) * (float)numberOfBlocks / 8.0F);
+        double xEnd = (double)((float)(posX + 8) - MathHelper.sin(angle) * (float)numberOfBlocks / 8.0F);
+        double zStart = (double)((float)(posZ + 8) + MathHelper.cos(angle) * (float)numberOfBlocks / 8.0F);
+        double zEnd = (double)((float)(posZ + 8) - MathHelper.cos(angle) * (float)numberOfBlocks / 8.0F);
+        double yStart = (double)(posY + random.nextInt(3) - 2);
+        double yEnd = (double)(posY + random.nextInt(3) - 2);
+
+        for (int i = 0; i < numberOfBlocks; ++i) {
+            float progress = (float)i / (float)numberOfBlocks;
+            double xCentre = xStart + (xEnd - xStart) * (double)progress;
+            double yCentre = yStart + (yEnd - yStart) * (double)progress;
+            double zCentre = zStart + (zEnd - zStart) * (double)progress;
+            double size = random.nextDouble() * (double)numberOfBlocks / 16.0D;
+            double horizontalDiameter = (double)(MathHelper.sin((float)Math.PI * progress) + 1.0F) * size + 1.0D;
+            double verticalDiameter = (double)(MathHelper.sin((float)Math.PI * progress) + 1.0F) * size + 1.0D;
+            int minX = MathHelper.floor_double(xCentre - horizontalDiameter / 2.0D);
+            int minY = MathHelper.floor_double(yCentre - verticalDiameter / 2.0D);
+            int minZ = MathHelper.floor_double(zCentre - horizontalDiameter / 2.0D);
+            int maxX = MathHelper.floor_double(xCentre + horizontalDiameter / 2.0D);
+            int maxY = MathHelper.floor_double(yCentre + verticalDiameter / 2.0D);
+            int maxZ = MathHelper.floor_double(zCentre + horizontalDiameter / 2.0D);
+
+            for (int x = minX; x <= maxX; ++x) {
+                double dx = ((double)x + 0.5D - xCentre) / (horizontalDiameter / 2.0D);
+
+                if (dx * dx < 1.0D) {
+                    for (int y = minY; y <= maxY; ++y) {
+                        double dy = ((double)y + 0.5D - yCentre) / (verticalDiameter / 2.0D);
+
+                        if (dx * dx + dy * dy < 1.0D) {
+                            for (int z = minZ; z <= maxZ; ++z) {
+                                double dz = ((double)z + 0.5D - zCentre) / (horizontalDiameter / 2.0D);
+
+                                if (dx * dx + dy * dy + dz * dz < 1.0D) {
+                                    plan.addBlock(x, y, z);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.bigeebs.quantumprocessing.worldGen;
+
+import com.bigeebs.quantumprocessing.handler.ConfigurationHandler;
+import com.bigeebs.quantumprocessing.utility.LogHelper;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.BlockPos;
+import net.minecraft.util.ChatComponentText;
+import net.minecraft.world.WorldServer;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.fml.relauncher.Side;
+
+/**
+ * Generates and populates every chunk within a radius of the world spawn, for timing world generation (/qp pregen).
+ *
+ * Chunks are loaded in a spiral from the spawn chunk, always in the same order, and only for as long as the tick's
+ * time budget (worldgen.pregenBudgetMs) lasts. Loading a chunk populates the chunks around it once their neighbors are
+ * there, so the spiral runs one ring past the radius. A chunk is dropped, and so saved and unloaded by the world the
+ * next tick, as soon as all its neighbors have been loaded, which keeps only a ring or two of chunks in memory. Chunks
+ * near players are kept.
+ *
+ * Registered on both the FML bus (ticks) and the Forge bus (world unload).
+ */
+public class Pregenerator {
+
+    /** Ticks between progress reports, 10 seconds */
+    private static final int REPORT_INTERVAL = 200;
+
+    private static Pregenerator instance;
+
+    private WorldServer world;
+    private ICommandSender sender;
+    private int centerX;
+    private int centerZ;
+    /** Half the side of the square loaded, one more than the radius asked for */
+    private int extent;
+    private int total;
+
+    // position in the spiral, relative to the center
+    private int done;
+    private int x;
+    private int z;
+    private int dx;
+    private int dz;
+
+    private long startNanos;
+    private long busyNanos;
+    /** Ore generation time and chunks populated inside the loads of this run, not counting anything else going on */
+    private long oreNanos;
+    private long populated;
+    private int ticks;
+
+    public Pregenerator() {
+        instance = this;
+    }
+
+    public static Pregenerator getInstance() {
+        return instance;
+    }
+
+    public boolean isRunning() {
+        return world != null;
+    }
+
+    /**
+     * Starts generating the chunks within radius chunks of the spawn of the given world
+     */
+    public void start(WorldServer world, int radius, ICommandSender sender) {
+        BlockPos spawn = world.getSpawnPoint();
+        this.world = world;
+        this.sender = sender;
+        this.centerX = spawn.getX() >> 4;
+        this.centerZ = spawn.getZ() >> 4;
+        this.extent = radius + 1;
+        this.total = (2 * extent + 1) * (2 * extent + 1);
+        done = 0;
+        x = 0;
+        z = 0;
+        dx = 0;
+        dz = -1;
+        startNanos = System.nanoTime();
+        busyNanos = 0;
+        oreNanos = 0;
+        populated = 0;
+        ticks = 0;
+        send("Pregenerating " + total + " chunks around " + centerX + ", " + centerZ
+                + " in dimension " + world.provider.getDimensionId());
+    }
+
+    public void stop() {
+        if (!isRunning()) return;
+        send("Pregeneration stopped. " + getProgress());
+        world = null;
+        sender = null;
+    }
+
+    /**
+     * Chunks done out of all of them, chunks per second, and how much of the time went into ore generation
+     */
+    public String getProgress() {
+        double seconds = (System.nanoTime() - startNanos) / 1.0E9;
+        return String.format("%d/%d chunks, %d populated, %.1f chunks/s, ore generation %.1f%% of the generation time",
+                done, total, populated, seconds > 0 ? done / seconds : 0,
+                busyNanos > 0 ? 100.0 * oreNanos / busyNanos : 0);
+    }
+
+    @SubscribeEvent
+    public void onWorldTick(TickEvent.WorldTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || event.side != Side.SERVER || event.world != world) return;
+
+        long tickStart = System.nanoTime();
+        long deadline = tickStart + ConfigurationHandler.worldGenPregenBudgetMs * 1000000L;
+        while (done < total && System.nanoTime() < deadline) {
+            int chunkX = centerX + x;
+            int chunkZ = centerZ + z;
+            // ores are only generated on this thread, so what OreGenStats gains during the load is this load's
+            long oreNanosBefore = OreGenStats.getTotalNanos();
+            long populatedBefore = OreGenStats.getChunksGenerated();
+            world.theChunkProviderServer.loadChunk(chunkX, chunkZ);
+            oreNanos += OreGenStats.getTotalNanos() - oreNanosBefore;
+            populated += OreGenStats.getChunksGenerated() - populatedBefore;
+            done++;
+            for (int neighborX = chunkX - 1; neighborX <= chunkX + 1; neighborX++) {
+                for (int neighborZ = chunkZ - 1; neighborZ <= chunkZ + 1; neighborZ++) {
+                    if (isSurrounded(neighborX, neighborZ)) drop(neighborX, neighborZ);
+                }
+            }
+            nextInSpiral();
+        }
+        busyNanos += System.nanoTime() - tickStart;
+
+        if (done == total) {
+            send("Pregeneration done. " + getProgress());
+            world = null;
+            sender = null;
+        } else if (++ticks % REPORT_INTERVAL == 0) {
+            send(getProgress());
+        }
+    }
+
+    @SubscribeEvent
+    public void onWorldUnload(WorldEvent.Unload event) {
+        if (event.world == world) stop();
+    }
+
+    // walks the square ring by ring, turning at the corners
+    private void nextInSpiral() {
+        if (x == z || (x < 0 && x == -z) || (x > 0 && x == 1 - z)) {
+            int turn = dx;
+            dx = -dz;
+            dz = turn;
+        }
+        x += dx;
+        z += dz;
+    }
+
+    /**
+     * The position of a chunk in the spiral, given relative to the center. Ring r starts at (r, 1 - r) and goes up z,
+     * down x, down z and back up x, each side ending in a corner
+     */
+    private static int spiralIndex(int x, int z) {
+        int ring = Math.max(Math.abs(x), Math.abs(z));
+        if (ring == 0) return 0;
+        int ringStart = (2 * ring - 1) * (2 * ring - 1);
+        if (x == ring && z > -ring) return ringStart + z + ring - 1;
+        if (z == ring) return ringStart + 2 * ring - 1 + ring - x;
+        if (x == -ring) return ringStart + 4 * ring - 1 + ring - z;
+        return ringStart + 6 * ring - 1 + x + ring;
+    }
+
+    // chunks are loaded in spiral order, so the ones loaded are the first done of the spiral
+    private boolean isVisited(int chunkX, int chunkZ) {
+        return spiralIndex(chunkX - centerX, chunkZ - centerZ) < done;
+    }
+
+    private boolean isInSquare(int chunkX, int chunkZ) {
+        return Math.abs(chunkX - centerX) <= extent && Math.abs(chunkZ - centerZ) <= extent;
+    }
+
+    // whether the chunk and all of its neighbors in the square have been loaded, so it isn't needed any more
+    private boolean isSurrounded(int chunkX, int chunkZ) {
+        if (!isInSquare(chunkX, chunkZ)) return false;
+        for (int neighborX = chunkX - 1; neighborX <= chunkX + 1; neighborX++) {
+            for (int neighborZ = chunkZ - 1; neighborZ <= chunkZ + 1; neighborZ++) {
+                if (isInSquare(neighborX, neighborZ) && !isVisited(neighborX, neighborZ)) return false;
+            }
+        }
+        return true;
+    }
+
+    private void drop(int chunkX, int chunkZ) {
+        int viewDistance = MinecraftServer.getServer().getConfigurationManager().getViewDistance() + 1;
+        for (Object player : world.playerEntities) {
+            BlockPos pos = ((EntityPlayer) player).getPosition();
+            if (Math.abs((pos.getX() >> 4) - chunkX) <= viewDistance && Math.abs((pos.getZ() >> 4) - chunkZ) <= viewDistance) return;
+        }
+        world.theChunkProviderServer.dropChunk(chunkX, chunkZ);
+    }
+
+    private void send(String message) {
+        LogHelper.info(message);
+        if (sender != null && sender != MinecraftServer.getServer()) sender.addChatMessage(new ChatComponentText(message));
+    }
+}
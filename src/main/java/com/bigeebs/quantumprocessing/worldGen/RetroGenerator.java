@@ -0,0 +1,180 @@
+package com.bigeebs.quantumprocessing.worldGen;
+
+import com.bigeebs.quantumprocessing.handler.ConfigurationHandler;
+import net.minecraft.world.ChunkCoordIntPair;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.IChunkProvider;
+import net.minecraftforge.event.world.ChunkDataEvent;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.fml.relauncher.Side;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Adds ores to chunks that were generated before the ores were.
+ *
+ * Every chunk QP saves gets the ore generation version (worldgen.generationVersion) in its NBT. A chunk that loads with
+ * a lower version, or none, remembers its version so it keeps it when saved again, and once populated it is queued
+ * when retrogen is on. At the end of each world tick queued chunks are handed to OreGeneration.retrogen, which
+ * generates the ores marked for retrogen, until the tick's time budget (worldgen.retrogenBudgetMs) is used up. A
+ * chunk is only done once its +x, +z neighbors are loaded, the same area population can write to.
+ *
+ * Registered on both the FML bus (ticks) and the Forge bus (chunk and world events).
+ */
+public class RetroGenerator {
+
+    private static final String NBT_VERSION_KEY = "QPOreGenVersion";
+
+    private static RetroGenerator instance;
+
+    private final OreGeneration oreGeneration;
+    /** dimension id -> (chunk key -> version) of the loaded chunks whose ores are older than the current version */
+    private final Map<Integer, Map<Long, Integer>> oldVersions = new HashMap<Integer, Map<Long, Integer>>();
+    /** dimension id -> chunk keys waiting for retrogen, oldest first */
+    private final Map<Integer, Set<Long>> queues = new HashMap<Integer, Set<Long>>();
+    /** chunk keys that were unloaded and are about to be saved for the last time */
+    private final Map<Integer, Set<Long>> unloading = new HashMap<Integer, Set<Long>>();
+    private long chunksDone;
+
+    public RetroGenerator(OreGeneration oreGeneration) {
+        this.oreGeneration = oreGeneration;
+        instance = this;
+    }
+
+    public static RetroGenerator getInstance() {
+        return instance;
+    }
+
+    public long getChunksDone() {
+        return chunksDone;
+    }
+
+    public int getQueueDepth(int dimension) {
+        Set<Long> queue = queues.get(dimension);
+        return queue == null ? 0 : queue.size();
+    }
+
+    /**
+     * The number of loaded chunks in the dimension that are older than the current ore generation version
+     */
+    public int getOldChunkCount(int dimension) {
+        Map<Long, Integer> versions = oldVersions.get(dimension);
+        return versions == null ? 0 : versions.size();
+    }
+
+    @SubscribeEvent
+    public void onChunkDataLoad(ChunkDataEvent.Load event) {
+        World world = event.world;
+        if (world.isRemote) return;
+
+        int version = event.getData().getInteger(NBT_VERSION_KEY);
+        if (version >= ConfigurationHandler.worldGenVersion) return;
+
+        Chunk chunk = event.getChunk();
+        int dimension = world.provider.getDimensionId();
+        long key = ChunkCoordIntPair.chunkXZ2Int(chunk.xPosition, chunk.zPosition);
+        getChunks(unloading, dimension).remove(key);
+        // a chunk that isn't populated yet gets every ore when it is, so it is up to date as soon as it is saved
+        if (!chunk.isTerrainPopulated()) return;
+
+        getOldVersions(dimension).put(key, version);
+        if (ConfigurationHandler.worldGenRetrogen && oreGeneration.hasRetrogen(dimension)) getChunks(queues, dimension).add(key);
+    }
+
+    @SubscribeEvent
+    public void onChunkDataSave(ChunkDataEvent.Save event) {
+        World world = event.world;
+        if (world.isRemote) return;
+
+        int dimension = world.provider.getDimensionId();
+        long key = ChunkCoordIntPair.chunkXZ2Int(event.getChunk().xPosition, event.getChunk().zPosition);
+        Map<Long, Integer> versions = oldVersions.get(dimension);
+        Integer oldVersion = versions == null ? null : versions.get(key);
+        event.getData().setInteger(NBT_VERSION_KEY, oldVersion != null ? oldVersion : ConfigurationHandler.worldGenVersion);
+
+        Set<Long> unloadingChunks = unloading.get(dimension);
+        if (unloadingChunks != null && unloadingChunks.remove(key) && versions != null) versions.remove(key);
+    }
+
+    // The chunk is saved right after this, it still needs its version until then
+    @SubscribeEvent
+    public void onChunkUnload(ChunkEvent.Unload event) {
+        World world = event.world;
+        if (world.isRemote) return;
+
+        int dimension = world.provider.getDimensionId();
+        long key = ChunkCoordIntPair.chunkXZ2Int(event.getChunk().xPosition, event.getChunk().zPosition);
+        Set<Long> queue = queues.get(dimension);
+        if (queue != null) queue.remove(key);
+        Map<Long, Integer> versions = oldVersions.get(dimension);
+        if (versions != null && versions.containsKey(key)) getChunks(unloading, dimension).add(key);
+    }
+
+    @SubscribeEvent
+    public void onWorldUnload(WorldEvent.Unload event) {
+        if (event.world.isRemote) return;
+        int dimension = event.world.provider.getDimensionId();
+        oldVersions.remove(dimension);
+        queues.remove(dimension);
+        unloading.remove(dimension);
+    }
+
+    @SubscribeEvent
+    public void onWorldTick(TickEvent.WorldTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || event.side != Side.SERVER) return;
+
+        Set<Long> queue = queues.get(event.world.provider.getDimensionId());
+        if (queue == null || queue.isEmpty()) return;
+
+        World world = event.world;
+        Map<Long, Integer> versions = getOldVersions(world.provider.getDimensionId());
+        IChunkProvider chunkProvider = world.getChunkProvider();
+        long deadline = System.nanoTime() + ConfigurationHandler.worldGenRetrogenBudgetMs * 1000000L;
+
+        // each queued chunk is looked at once per tick at most, the ones still waiting for neighbors go to the back
+        for (int toVisit = queue.size(); toVisit > 0 && System.nanoTime() < deadline; toVisit--) {
+            Iterator<Long> iterator = queue.iterator();
+            long key = iterator.next();
+            iterator.remove();
+
+            int chunkX = (int) key;
+            int chunkZ = (int) (key >> 32);
+            if (!chunkProvider.chunkExists(chunkX + 1, chunkZ) || !chunkProvider.chunkExists(chunkX, chunkZ + 1)
+                    || !chunkProvider.chunkExists(chunkX + 1, chunkZ + 1)) {
+                queue.add(key);
+                continue;
+            }
+
+            oreGeneration.retrogen(world, chunkX, chunkZ);
+            versions.remove(key);
+            world.getChunkFromChunkCoords(chunkX, chunkZ).setChunkModified();
+            chunksDone++;
+        }
+    }
+
+    private Map<Long, Integer> getOldVersions(int dimension) {
+        Map<Long, Integer> versions = oldVersions.get(dimension);
+        if (versions == null) {
+            versions = new HashMap<Long, Integer>();
+            oldVersions.put(dimension, versions);
+        }
+        return versions;
+    }
+
+    private static Set<Long> getChunks(Map<Integer, Set<Long>> chunksByDimension, int dimension) {
+        Set<Long> chunks = chunksByDimension.get(dimension);
+        if (chunks == null) {
+            chunks = new LinkedHashSet<Long>();
+            chunksByDimension.put(dimension, chunks);
+        }
+        return chunks;
+    }
+}
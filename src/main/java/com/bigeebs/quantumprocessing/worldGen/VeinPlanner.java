@@ -0,0 +1,127 @@
+package com.bigeebs.quantumprocessing.worldGen;
+
+import com.bigeebs.quantumprocessing.utility.LogHelper;
+import net.minecraft.world.ChunkCoordIntPair;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plans ore veins on worker threads ahead of population.
+ *
+ * When a chunk that still has to be populated loads, its plan is started on the pool (planAhead). Population picks
+ * it up (takePlan), waiting for it if it isn't done yet, or plans right there if nothing was started. Plans don't
+ * depend on the thread or the moment they are made, so the world is the same for any number of threads.
+ *
+ * Everything except the planning itself happens on the server thread.
+ */
+public class VeinPlanner {
+
+    private final ExecutorService pool;
+    /** dimension id -> (ChunkCoordIntPair.chunkXZ2Int -> Future of ChunkOrePlan) */
+    private final Map<Integer, Map<Long, Future<ChunkOrePlan>>> pendingByDimension = new HashMap<Integer, Map<Long, Future<ChunkOrePlan>>>();
+
+    /**
+     * @param threads worker threads, 0 to always plan on the server thread during population
+     */
+    public VeinPlanner(int threads) {
+        pool = threads > 0 ? Executors.newFixedThreadPool(threads, new PlannerThreadFactory()) : null;
+    }
+
+    /**
+     * Starts planning the given chunk on the pool
+     */
+    public void planAhead(final OreDefinition[] definitions, int dimension, final long worldSeed, final int chunkX, final int chunkZ) {
+        if (pool == null) return;
+        Map<Long, Future<ChunkOrePlan>> pending = getPending(dimension);
+        long key = ChunkCoordIntPair.chunkXZ2Int(chunkX, chunkZ);
+        if (pending.containsKey(key)) return;
+
+        pending.put(key, pool.submit(new Callable<ChunkOrePlan>() {
+            @Override
+            public ChunkOrePlan call() {
+                return plan(definitions, worldSeed, chunkX, chunkZ);
+            }
+        }));
+    }
+
+    /**
+     * The plan for the given chunk, planned ahead or made now
+     */
+    public ChunkOrePlan takePlan(OreDefinition[] definitions, int dimension, long worldSeed, int chunkX, int chunkZ) {
+        Map<Long, Future<ChunkOrePlan>> pending = pendingByDimension.get(dimension);
+        Future<ChunkOrePlan> future = pending == null ? null : pending.remove(ChunkCoordIntPair.chunkXZ2Int(chunkX, chunkZ));
+        if (future != null) {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                LogHelper.error("Planning ores for chunk " + chunkX + ", " + chunkZ + " failed, planning again: " + e.getCause());
+            }
+        }
+        return plan(definitions, worldSeed, chunkX, chunkZ);
+    }
+
+    /**
+     * Drops the plan of a chunk that unloads before being populated
+     */
+    public void discard(int dimension, int chunkX, int chunkZ) {
+        Map<Long, Future<ChunkOrePlan>> pending = pendingByDimension.get(dimension);
+        if (pending == null) return;
+        Future<ChunkOrePlan> future = pending.remove(ChunkCoordIntPair.chunkXZ2Int(chunkX, chunkZ));
+        if (future != null) future.cancel(false);
+    }
+
+    public void discardAll(int dimension) {
+        Map<Long, Future<ChunkOrePlan>> pending = pendingByDimension.remove(dimension);
+        if (pending == null) return;
+        for (Future<ChunkOrePlan> future : pending.values()) future.cancel(false);
+    }
+
+    public int getPendingCount() {
+        int count = 0;
+        for (Map<Long, Future<ChunkOrePlan>> pending : pendingByDimension.values()) count += pending.size();
+        return count;
+    }
+
+    private Map<Long, Future<ChunkOrePlan>> getPending(int dimension) {
+        Map<Long, Future<ChunkOrePlan>> pending = pendingByDimension.get(dimension);
+        if (pending == null) {
+            pending = new HashMap<Long, Future<ChunkOrePlan>>();
+            pendingByDimension.put(dimension, pending);
+        }
+        return pending;
+    }
+
+    /**
+     * Plans the given ores for one chunk, in the order given
+     */
+    public static ChunkOrePlan plan(OreDefinition[] definitions, long worldSeed, int chunkX, int chunkZ) {
+        ChunkOrePlan plan = new ChunkOrePlan(chunkX, chunkZ);
+        for (OreDefinition definition : definitions) {
+            definition.plan(worldSeed, chunkX, chunkZ, plan);
+        }
+        return plan;
+    }
+
+    // daemon threads, so a pool that is still planning doesn't keep the server from shutting down
+    private static class PlannerThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "QP Vein Planner #" + count.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.bigeebs.quantumprocessing.block.LeadFurnace;
+
+import com.bigeebs.quantumprocessing.block.MachineScheduler;
+import com.bigeebs.quantumprocessing.handler.ConfigurationHandler;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * LeadFurnaceTileEntity.catchUp(n) has to leave the furnace exactly as n real ticks would, and so does a MachineScheduler
+ * skipping the plain ticks the furnace hands out. Each case sets up three furnaces the same way, catches one up, ticks
+ * one by itself and runs one on a scheduler, and compares every slot and counter.
+ *
+ * The furnaces have no world. Without a scheduler tickMachine() runs a single real tick each call.
+ */
+public class LeadFurnaceCatchUpTest {
+
+    private static final int PROCESS_SLOT_1 = 0;
+    private static final int PROCESS_SLOT_2 = 1;
+    private static final int FUEL_SLOT = 2;
+    private static final int OUTPUT_SLOT = 3;
+
+    /** Sets up the inventory and counters of a furnace */
+    private interface Setup {
+        void apply(LeadFurnaceTileEntity furnace);
+    }
+
+    @BeforeClass
+    public static void registerGameData() {
+        Bootstrap.register();
+    }
+
+    @After
+    public void resetBatchSize() {
+        ConfigurationHandler.furnaceBatchSize = 1;
+    }
+
+    @Test
+    public void coalAndOre() {
+        assertCatchUpMatchesTicks(3000, new Setup() {
+            @Override
+            public void apply(LeadFurnaceTileEntity furnace) {
+                furnace.setInventorySlotContents(PROCESS_SLOT_1, new ItemStack(Blocks.iron_ore, 20));
+                furnace.setInventorySlotContents(FUEL_SLOT, new ItemStack(Items.coal, 2));
+            }
+        });
+    }
+
+    @Test
+    public void fuelRunsOutWhileCooking() {
+        assertCatchUpMatchesTicks(5000, new Setup() {
+            @Override
+            public void apply(LeadFurnaceTileEntity furnace) {
+                furnace.setInventorySlotContents(PROCESS_SLOT_1, new ItemStack(Blocks.iron_ore, 64));
+                furnace.setInventorySlotContents(FUEL_SLOT, new ItemStack(Blocks.planks, 3));
+            }
+        });
+    }
+
+    @Test
+    public void uncooksWithoutFuel() {
+        assertCatchUpMatchesTicks(400, new Setup() {
+            @Override
+            public void apply(LeadFurnaceTileEntity furnace) {
+                furnace.setInventorySlotContents(PROCESS_SLOT_1, new ItemStack(Blocks.iron_ore, 5));
+                furnace.setField(LeadFurnaceTileEntity.FIELD_COOK_TIME, 150);
+            }
+        });
+    }
+
+    @Test
+    public void partlyBurntFuelAndPartlyCookedItem() {
+        assertCatchUpMatchesTicks(2500, new Setup() {
+            @Override
+            public void apply(LeadFurnaceTileEntity furnace) {
+                furnace.setInventorySlotContents(PROCESS_SLOT_1, new ItemStack(Blocks.sand, 16));
+                furnace.setInventorySlotContents(FUEL_SLOT, new ItemStack(Items.stick, 7));
+                furnace.setField(LeadFurnaceTileEntity.FIELD_BURN_TIME, 37);
+                furnace.setField(LeadFurnaceTileEntity.FIELD_BURN_TIME_TOTAL, 300);
+                furnace.setField(LeadFurnaceTileEntity.FIELD_COOK_TIME, 123);
+            }
+        });
+    }
+
+    @Test
+    public void outputFillsUp() {
+        assertCatchUpMatchesTicks(4000, new Setup() {
+            @Override
+            public void apply(LeadFurnaceTileEntity furnace) {
+                furnace.setInventorySlotContents(PROCESS_SLOT_1, new ItemStack(Blocks.iron_ore, 10));
+                furnace.setInventorySlotContents(FUEL_SLOT, new ItemStack(Items.coal, 5));
+                furnace.setInventorySlotContents(OUTPUT_SLOT, new ItemStack(Items.iron_ingot, 61));
+            }
+        });
+    }
+
+    @Test
+    public void lavaBucketLeavesTheBucket() {
+        LeadFurnaceTileEntity furnace = assertCatchUpMatchesTicks(1000, new Setup() {
+            @Override
+            public void apply(LeadFurnaceTileEntity furnace) {
+                furnace.setInventorySlotContents(PROCESS_SLOT_1, new ItemStack(Blocks.iron_ore, 3));
+                furnace.setInventorySlotContents(FUEL_SLOT, new ItemStack(Items.lava_bucket));
+            }
+        });
+        assertEquals(Items.bucket, furnace.getStackInSlot(FUEL_SLOT).getItem());
+    }
+
+    @Test
+    public void lastItemSmeltsWhileFuelIsBurning() {
+        assertCatchUpMatchesTicks(1000, new Setup() {
+            @Override
+            public void apply(LeadFurnaceTileEntity furnace) {
+                furnace.setInventorySlotContents(PROCESS_SLOT_1, new ItemStack(Blocks.iron_ore, 2));
+                furnace.setInventorySlotContents(FUEL_SLOT, new ItemStack(Items.coal, 1));
+            }
+        });
+    }
+
+    @Test
+    public void outputFillsWhileFuelIsBurning() {
+        assertCatchUpMatchesTicks(1000, new Setup() {
+            @Override
+            public void apply(LeadFurnaceTileEntity furnace) {
+                furnace.setInventorySlotContents(PROCESS_SLOT_1, new ItemStack(Blocks.iron_ore, 10));
+                furnace.setInventorySlotContents(FUEL_SLOT, new ItemStack(Items.coal, 1));
+                furnace.setInventorySlotContents(OUTPUT_SLOT, new ItemStack(Items.iron_ingot, 62));
+            }
+        });
+    }
+
+    @Test
+    public void secondInputSlotAfterTheFirstRunsOut() {
+        LeadFurnaceTileEntity furnace = assertCatchUpMatchesTicks(3000, new Setup() {
+            @Override
+            public void apply(LeadFurnaceTileEntity furnace) {
+                furnace.setInventorySlotContents(PROCESS_SLOT_1, new ItemStack(Blocks.iron_ore, 4));
+                furnace.setInventorySlotContents(PROCESS_SLOT_2, new ItemStack(Blocks.gold_ore, 6));
+                furnace.setInventorySlotContents(FUEL_SLOT, new ItemStack(Items.coal, 2));
+            }
+        });
+        assertNull(furnace.getStackInSlot(PROCESS_SLOT_1));
+    }
+
+    @Test
+    public void batches() {
+        ConfigurationHandler.furnaceBatchSize = 8;
+        assertCatchUpMatchesTicks(6000, new Setup() {
+            @Override
+            public void apply(LeadFurnaceTileEntity furnace) {
+                furnace.setInventorySlotContents(PROCESS_SLOT_1, new ItemStack(Blocks.iron_ore, 13));
+                furnace.setInventorySlotContents(PROCESS_SLOT_2, new ItemStack(Blocks.sand, 30));
+                furnace.setInventorySlotContents(FUEL_SLOT, new ItemStack(Items.coal, 3));
+            }
+        });
+    }
+
+    @Test
+    public void nothingToSmelt() {
+        assertCatchUpMatchesTicks(500, new Setup() {
+            @Override
+            public void apply(LeadFurnaceTileEntity furnace) {
+                furnace.setInventorySlotContents(PROCESS_SLOT_1, new ItemStack(Blocks.dirt, 10));
+                furnace.setInventorySlotContents(FUEL_SLOT, new ItemStack(Items.coal, 1));
+            }
+        });
+    }
+
+    // catches one furnace up, ticks another and schedules a third, and checks they end up the same. Returns the caught up one
+    private static LeadFurnaceTileEntity assertCatchUpMatchesTicks(int ticks, Setup setup) {
+        LeadFurnaceTileEntity caughtUp = new LeadFurnaceTileEntity();
+        setup.apply(caughtUp);
+        caughtUp.catchUp(ticks);
+
+        LeadFurnaceTileEntity ticked = new LeadFurnaceTileEntity();
+        setup.apply(ticked);
+        for (int i = 0; i < ticks; i++) ticked.tickMachine();
+
+        LeadFurnaceTileEntity scheduled = new LeadFurnaceTileEntity();
+        setup.apply(scheduled);
+        MachineScheduler scheduler = new MachineScheduler();
+        scheduler.register(scheduled);
+        for (int i = 0; i < ticks; i++) {
+            scheduler.tick();
+            scheduler.flushDirty();
+        }
+
+        assertSameState("caught up", ticked, caughtUp);
+        assertSameState("scheduled", ticked, scheduled);
+        return caughtUp;
+    }
+
+    private static void assertSameState(String message, LeadFurnaceTileEntity expected, LeadFurnaceTileEntity actual) {
+        for (int slot = 0; slot < expected.getSizeInventory(); slot++) {
+            ItemStack expectedStack = expected.getStackInSlot(slot);
+            ItemStack actualStack = actual.getStackInSlot(slot);
+            if (expectedStack == null) {
+                assertNull(message + ", slot " + slot, actualStack);
+            } else {
+                assertEquals(message + ", item in slot " + slot, expectedStack.getItem(), actualStack.getItem());
+                assertEquals(message + ", size of slot " + slot, expectedStack.stackSize, actualStack.stackSize);
+                assertEquals(message + ", metadata in slot " + slot, expectedStack.getMetadata(), actualStack.getMetadata());
+            }
+        }
+        assertEquals(message + ", burn time", expected.getField(LeadFurnaceTileEntity.FIELD_BURN_TIME),
+                actual.getField(LeadFurnaceTileEntity.FIELD_BURN_TIME));
+        assertEquals(message + ", total burn time", expected.getField(LeadFurnaceTileEntity.FIELD_BURN_TIME_TOTAL),
+                actual.getField(LeadFurnaceTileEntity.FIELD_BURN_TIME_TOTAL));
+        assertEquals(message + ", cook time", expected.getField(LeadFurnaceTileEntity.FIELD_COOK_TIME),
+                actual.getField(LeadFurnaceTileEntity.FIELD_COOK_TIME));
+    }
+}
@@ -0,0 +1,56 @@
+package com.bigeebs.quantumprocessing.block.LeadFurnace;
+
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+
+import java.util.Locale;
+
+/**
+ * Times full ticks of smelting Lead Furnaces with the cached smelting plan, against the same furnaces having to plan
+ * again every tick, which is the recipe lookup and output check every tick used to do before the plan was cached.
+ * Run with: gradle benchmark -PbenchmarkClass=block.LeadFurnace.SmeltingPlanBenchmark
+ *
+ * Planning again is forced with markDirty(), which the furnace also gets from every inventory change. The furnaces
+ * have no world or scheduler, so markDirty costs nothing else and every tickMachine() call is a full tick.
+ */
+public class SmeltingPlanBenchmark {
+
+    private static final int FURNACES = 1000;
+    private static final int TICKS = 2000;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        Bootstrap.register();
+
+        for (int round = 0; round < ROUNDS; round++) {
+            double cached = time(createFurnaces(), false);
+            double replanned = time(createFurnaces(), true);
+            System.out.println(String.format(Locale.ROOT, "round %d: cached plan %.0f furnace ticks/s, planned every tick %.0f furnace ticks/s (%.1fx)",
+                    round + 1, cached, replanned, cached / replanned));
+        }
+    }
+
+    private static LeadFurnaceTileEntity[] createFurnaces() {
+        LeadFurnaceTileEntity[] furnaces = new LeadFurnaceTileEntity[FURNACES];
+        for (int i = 0; i < FURNACES; i++) {
+            furnaces[i] = new LeadFurnaceTileEntity();
+            furnaces[i].setInventorySlotContents(0, new ItemStack(Blocks.iron_ore, 64));
+            furnaces[i].setInventorySlotContents(1, new ItemStack(Blocks.gold_ore, 64));
+            furnaces[i].setInventorySlotContents(2, new ItemStack(Items.coal, 64));
+        }
+        return furnaces;
+    }
+
+    private static double time(LeadFurnaceTileEntity[] furnaces, boolean replanEveryTick) {
+        long start = System.nanoTime();
+        for (int tick = 0; tick < TICKS; tick++) {
+            for (LeadFurnaceTileEntity furnace : furnaces) {
+                if (replanEveryTick) furnace.markDirty();
+                furnace.tickMachine();
+            }
+        }
+        return (double) FURNACES * TICKS / ((System.nanoTime() - start) / 1.0E9);
+    }
+}
@@ -0,0 +1,76 @@
+package com.bigeebs.quantumprocessing.block;
+
+import com.bigeebs.quantumprocessing.block.LeadFurnace.LeadFurnaceTileEntity;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+
+import java.util.Locale;
+
+/**
+ * Times ticking Lead Furnaces through a MachineScheduler against ticking each tile entity itself, the way the world
+ * ticked them before the scheduler (one full tickMachine() per furnace per tick, which is what update() did).
+ * Run with: gradle benchmark -PbenchmarkClass=block.MachineSchedulerBenchmark [-PbenchmarkArgs="1000,10000,100000 1000"]
+ *
+ * Arguments are the machine counts, comma separated, and the ticks per round. Every furnace is smelting iron ore with
+ * coal, half of them in "mixed" rounds, where the other half have nothing to smelt. The furnaces have no world, so
+ * neither path pays for chunk marking or comparator updates. Fresh furnaces are made for every round, outside the
+ * timing.
+ */
+public class MachineSchedulerBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        String[] counts = (args.length > 0 ? args[0] : "1000,10000,100000").split(",");
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        Bootstrap.register();
+
+        for (String count : counts) {
+            int machines = Integer.parseInt(count.trim());
+            for (int round = 0; round < ROUNDS; round++) {
+                for (boolean mixed : new boolean[] {false, true}) {
+                    double perTileEntity = timePerTileEntity(createFurnaces(machines, mixed), ticks);
+                    double scheduled = timeScheduled(createFurnaces(machines, mixed), ticks);
+                    System.out.println(String.format(Locale.ROOT,
+                            "%7d machines, %s, round %d: per tile entity %9.1f ticks/s, scheduler %9.1f ticks/s (%.1fx)",
+                            machines, mixed ? "half idle" : " all busy", round + 1, perTileEntity, scheduled, scheduled / perTileEntity));
+                }
+            }
+        }
+    }
+
+    private static LeadFurnaceTileEntity[] createFurnaces(int machines, boolean mixed) {
+        LeadFurnaceTileEntity[] furnaces = new LeadFurnaceTileEntity[machines];
+        for (int i = 0; i < machines; i++) {
+            LeadFurnaceTileEntity furnace = new LeadFurnaceTileEntity();
+            if (!mixed || i % 2 == 0) {
+                furnace.setInventorySlotContents(0, new ItemStack(Blocks.iron_ore, 64));
+                furnace.setInventorySlotContents(2, new ItemStack(Items.coal, 64));
+            }
+            furnaces[i] = furnace;
+        }
+        return furnaces;
+    }
+
+    // world ticks per second, each ticking every furnace once
+    private static double timePerTileEntity(LeadFurnaceTileEntity[] furnaces, int ticks) {
+        long start = System.nanoTime();
+        for (int tick = 0; tick < ticks; tick++) {
+            for (LeadFurnaceTileEntity furnace : furnaces) furnace.tickMachine();
+        }
+        return ticks / ((System.nanoTime() - start) / 1.0E9);
+    }
+
+    private static double timeScheduled(LeadFurnaceTileEntity[] furnaces, int ticks) {
+        MachineScheduler scheduler = new MachineScheduler();
+        for (LeadFurnaceTileEntity furnace : furnaces) scheduler.register(furnace);
+        long start = System.nanoTime();
+        for (int tick = 0; tick < ticks; tick++) {
+            scheduler.tick();
+            scheduler.flushDirty();
+        }
+        return ticks / ((System.nanoTime() - start) / 1.0E9);
+    }
+}
@@ -0,0 +1,53 @@
+package com.bigeebs.quantumprocessing.utility;
+
+import net.minecraft.init.Bootstrap;
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+
+/**
+ * Times reading an int from ItemStack NBT through NBTHelper.getInt, NBTHelper.readInt and an NBTKey, over stacks that
+ * have the key and stacks that don't. Run with: gradle benchmark -PbenchmarkClass=utility.NBTKeyBenchmark
+ *
+ * Not a test: it only prints nanoseconds per read, after a few warm-up rounds so the JIT has compiled all three.
+ */
+public class NBTKeyBenchmark {
+
+    private static final int STACKS = 1024;
+    private static final int READS = 20000000;
+    private static final int ROUNDS = 5;
+
+    private static final NBTKey.IntKey ENERGY = NBTKey.ofInt("Energy");
+
+    public static void main(String[] args) {
+        Bootstrap.register();
+
+        // every other stack has the value, the rest have no tag compound at all
+        ItemStack[] stacks = new ItemStack[STACKS];
+        for (int i = 0; i < STACKS; i++) {
+            stacks[i] = new ItemStack(Items.stick);
+            if (i % 2 == 0) NBTHelper.setInteger(stacks[i], "Energy", i);
+        }
+        // getInt writes the default into the stacks it reads, so it gets its own copies
+        ItemStack[] getStacks = new ItemStack[STACKS];
+        for (int i = 0; i < STACKS; i++) getStacks[i] = stacks[i].copy();
+
+        long sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < READS; i++) sink += NBTHelper.getInt(getStacks[i & (STACKS - 1)], "Energy");
+            long getNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < READS; i++) sink += NBTHelper.readInt(stacks[i & (STACKS - 1)], "Energy", 0);
+            long readNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < READS; i++) sink += ENERGY.read(stacks[i & (STACKS - 1)], 0);
+            long keyNanos = System.nanoTime() - start;
+
+            System.out.println(String.format("round %d: getInt %.2f ns, readInt %.2f ns, NBTKey %.2f ns per read",
+                    round + 1, getNanos / (double) READS, readNanos / (double) READS, keyNanos / (double) READS));
+        }
+        System.out.println("(" + sink + ")");
+    }
+}
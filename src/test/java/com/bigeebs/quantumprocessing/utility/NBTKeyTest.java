@@ -0,0 +1,60 @@
+package com.bigeebs.quantumprocessing.utility;
+
+import net.minecraft.init.Bootstrap;
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * NBTKey reads must never change the stack, and a value stored with another type must read as missing instead of
+ * failing the cast.
+ */
+public class NBTKeyTest {
+
+    private static final NBTKey.IntKey ENERGY = NBTKey.ofInt("Energy");
+    private static final NBTKey.LongKey ENERGY_AS_LONG = NBTKey.ofLong("Energy");
+    private static final NBTKey.StringKey ENERGY_AS_STRING = NBTKey.ofString("Energy");
+    private static final NBTKey.BooleanKey ACTIVE = NBTKey.ofBoolean("Active");
+
+    @BeforeClass
+    public static void registerGameData() {
+        Bootstrap.register();
+    }
+
+    @Test
+    public void readsItsOwnType() {
+        ItemStack stack = new ItemStack(Items.stick);
+        NBTHelper.setInteger(stack, "Energy", 1234);
+        NBTHelper.setBoolean(stack, "Active", true);
+
+        assertTrue(ENERGY.isPresent(stack));
+        assertEquals(1234, ENERGY.read(stack, 0));
+        assertTrue(ACTIVE.read(stack, false));
+    }
+
+    @Test
+    public void otherTypesReadAsMissing() {
+        ItemStack stack = new ItemStack(Items.stick);
+        NBTHelper.setInteger(stack, "Energy", 1234);
+
+        assertFalse(ENERGY_AS_LONG.isPresent(stack));
+        assertEquals(-1L, ENERGY_AS_LONG.read(stack, -1L));
+        assertEquals("none", ENERGY_AS_STRING.read(stack, "none"));
+    }
+
+    @Test
+    public void missingValuesLeaveTheStackAlone() {
+        ItemStack stack = new ItemStack(Items.stick);
+
+        assertEquals(7, ENERGY.read(stack, 7));
+        assertFalse(ACTIVE.read(stack, false));
+        assertEquals(7, ENERGY.read(null, 7));
+        assertNull(stack.getTagCompound());
+    }
+}
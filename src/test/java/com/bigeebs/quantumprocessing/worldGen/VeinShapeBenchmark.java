@@ -0,0 +1,67 @@
+package com.bigeebs.quantumprocessing.worldGen;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Times planning veins from a bank of precomputed shapes against working every vein out with WorldGenMinable's
+ * algorithm (OreVeinGenerator without templates, the same random numbers and math, minus the world writes).
+ * Run with: gradle benchmark -PbenchmarkClass=worldGen.VeinShapeBenchmark [-PbenchmarkArgs="2,9 64"]
+ *
+ * Arguments are the smallest vein size and the size veins stay below, like an ore table row, and the number of
+ * shapes per size. The blocks go to a sink that only adds up their coordinates, so the numbers are planning alone.
+ */
+public class VeinShapeBenchmark {
+
+    private static final int VEINS = 2000000;
+    private static final int ROUNDS = 5;
+
+    /** Adds up what it is given, so the JIT can't drop the planning */
+    private static class Sink implements OreVeinGenerator.BlockSink {
+        long sum;
+        long blocks;
+
+        @Override
+        public void addBlock(int x, int y, int z) {
+            sum += x + y + z;
+            blocks++;
+        }
+    }
+
+    public static void main(String[] args) {
+        String[] sizes = (args.length > 0 ? args[0] : "2,10").split(",");
+        int minVeinSize = Integer.parseInt(sizes[0].trim());
+        int maxVeinSize = Integer.parseInt(sizes[1].trim());
+        int templates = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+
+        int generatorCount = Math.max(1, maxVeinSize - minVeinSize);
+        OreVeinGenerator[] exact = new OreVeinGenerator[generatorCount];
+        OreVeinGenerator[] banked = new OreVeinGenerator[generatorCount];
+        for (int i = 0; i < generatorCount; i++) {
+            exact[i] = new OreVeinGenerator(minVeinSize + i, 0);
+            banked[i] = new OreVeinGenerator(minVeinSize + i, templates);
+        }
+
+        for (int round = 0; round < ROUNDS; round++) {
+            Sink exactSink = new Sink();
+            double exactRate = time(exact, exactSink);
+            Sink bankedSink = new Sink();
+            double bankedRate = time(banked, bankedSink);
+            System.out.println(String.format(Locale.ROOT,
+                    "round %d: WorldGenMinable math %.0f veins/s (%.2f blocks/vein), %d shapes %.0f veins/s (%.2f blocks/vein), %.1fx (%d)",
+                    round + 1, exactRate, exactSink.blocks / (double) VEINS, templates, bankedRate,
+                    bankedSink.blocks / (double) VEINS, bankedRate / exactRate, exactSink.sum + bankedSink.sum));
+        }
+    }
+
+    // veins per second, each vein of a random size at a random position like OreDefinition.plan
+    private static double time(OreVeinGenerator[] generators, Sink sink) {
+        Random random = new Random(12345L);
+        long start = System.nanoTime();
+        for (int i = 0; i < VEINS; i++) {
+            OreVeinGenerator generator = generators[random.nextInt(generators.length)];
+            generator.planVein(random, random.nextInt(16), 5 + random.nextInt(95), random.nextInt(16), sink);
+        }
+        return VEINS / ((System.nanoTime() - start) / 1.0E9);
+    }
+}
@@ -0,0 +1,136 @@
+package com.bigeebs.quantumprocessing.tools;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal reader for the NBT format, so the tools run without Minecraft on the classpath.
+ *
+ * Tags become plain Java objects: Byte, Short, Integer, Long, Float, Double, byte[], String, List (list tags),
+ * Map from name to tag (compound tags) and int[].
+ */
+public class NBTReader {
+
+    private static final int TAG_END = 0;
+    private static final int TAG_BYTE = 1;
+    private static final int TAG_SHORT = 2;
+    private static final int TAG_INT = 3;
+    private static final int TAG_LONG = 4;
+    private static final int TAG_FLOAT = 5;
+    private static final int TAG_DOUBLE = 6;
+    private static final int TAG_BYTE_ARRAY = 7;
+    private static final int TAG_STRING = 8;
+    private static final int TAG_LIST = 9;
+    private static final int TAG_COMPOUND = 10;
+    private static final int TAG_INT_ARRAY = 11;
+
+    /** Longer arrays and lists than this are taken to be corrupt, no chunk or level.dat comes near it */
+    private static final int MAX_LENGTH = 1 << 24;
+
+    /**
+     * Reads a complete NBT file or chunk: one named root compound
+     */
+    public static Map<String, Object> readRoot(DataInput input) throws IOException {
+        int type = input.readByte();
+        if (type != TAG_COMPOUND) throw new IOException("Root tag is not a compound but type " + type);
+        input.readUTF();
+        return readCompound(input);
+    }
+
+    private static Map<String, Object> readCompound(DataInput input) throws IOException {
+        Map<String, Object> compound = new HashMap<String, Object>();
+        while (true) {
+            int type = input.readByte();
+            if (type == TAG_END) return compound;
+            String name = input.readUTF();
+            compound.put(name, readPayload(input, type));
+        }
+    }
+
+    private static Object readPayload(DataInput input, int type) throws IOException {
+        switch (type) {
+            case TAG_BYTE:
+                return input.readByte();
+            case TAG_SHORT:
+                return input.readShort();
+            case TAG_INT:
+                return input.readInt();
+            case TAG_LONG:
+                return input.readLong();
+            case TAG_FLOAT:
+                return input.readFloat();
+            case TAG_DOUBLE:
+                return input.readDouble();
+            case TAG_BYTE_ARRAY: {
+                byte[] bytes = new byte[readLength(input)];
+                input.readFully(bytes);
+                return bytes;
+            }
+            case TAG_STRING:
+                return input.readUTF();
+            case TAG_LIST: {
+                int elementType = input.readByte();
+                int length = readLength(input);
+                List<Object> list = new ArrayList<Object>(length);
+                for (int i = 0; i < length; i++) list.add(readPayload(input, elementType));
+                return list;
+            }
+            case TAG_COMPOUND:
+                return readCompound(input);
+            case TAG_INT_ARRAY: {
+                int[] ints = new int[readLength(input)];
+                for (int i = 0; i < ints.length; i++) ints[i] = input.readInt();
+                return ints;
+            }
+            default:
+                throw new IOException("Unknown NBT tag type " + type);
+        }
+    }
+
+    // a corrupt length would otherwise fail the allocation, with a NegativeArraySizeException or an OutOfMemoryError
+    private static int readLength(DataInput input) throws IOException {
+        int length = input.readInt();
+        if (length < 0 || length > MAX_LENGTH) throw new IOException("Bad NBT array or list length " + length);
+        return length;
+    }
+
+    // Typed access to compounds, null when the tag is missing or has another type
+
+    /**
+     * The given tag as a compound, e.g. an element of a list of compounds
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> asCompound(Object tag) {
+        // readCompound is the only place compounds come from, always with String keys
+        return tag instanceof Map ? (Map<String, Object>) tag : null;
+    }
+
+    public static Map<String, Object> getCompound(Map<String, Object> compound, String name) {
+        return asCompound(compound == null ? null : compound.get(name));
+    }
+
+    @SuppressWarnings("unchecked")
+    public static List<Object> getList(Map<String, Object> compound, String name) {
+        Object tag = compound == null ? null : compound.get(name);
+        return tag instanceof List ? (List<Object>) tag : null;
+    }
+
+    public static byte[] getByteArray(Map<String, Object> compound, String name) {
+        Object tag = compound == null ? null : compound.get(name);
+        return tag instanceof byte[] ? (byte[]) tag : null;
+    }
+
+    public static int getInt(Map<String, Object> compound, String name, int defaultValue) {
+        Object tag = compound == null ? null : compound.get(name);
+        return tag instanceof Number ? ((Number) tag).intValue() : defaultValue;
+    }
+
+    public static String getString(Map<String, Object> compound, String name) {
+        Object tag = compound == null ? null : compound.get(name);
+        return tag instanceof String ? (String) tag : null;
+    }
+}
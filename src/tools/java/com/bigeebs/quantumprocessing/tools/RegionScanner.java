@@ -0,0 +1,387 @@
+package com.bigeebs.quantumprocessing.tools;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Counts QP ore blocks in a saved world, to tune the ore generation table without flying around in game.
+ *
+ *     java -jar QuantumProcessing-tools.jar <world dir> [--dim 0] [--out ore-scan] [--threads N] [--blocks a,b,...]
+ *
+ * or through gradle: gradle scanRegions -PscanArgs="<world dir> --dim -1"
+ *
+ * Block ids are numeric in the chunks, so the names are looked up in the FML id map of the world's level.dat. Region
+ * files are memory mapped and handed to a thread per core; each chunk is decompressed and its sections counted
+ * against a lookup table indexed by block id. The world is only read, it can be a copy of a running server's.
+ *
+ * A chunk that can't be read is counted as failed and skipped, and so is a region file that can't be opened, so one
+ * corrupt file doesn't end a long scan. Both counts are printed and go into the summary.
+ *
+ * Writes to the output directory:
+ *   ore_by_y.csv     - blocks of each ore per Y level
+ *   ore_by_chunk.csv - blocks of each ore per chunk, for chunks with any
+ *   summary.json     - totals, chunks scanned and timing
+ */
+public class RegionScanner {
+
+    private static final String[] DEFAULT_BLOCKS = new String[] {
+            "quantumprocessing:adamantiumOre", "quantumprocessing:aluminumOre", "quantumprocessing:copperOre",
+            "quantumprocessing:leadOre", "quantumprocessing:plutoniumOre", "quantumprocessing:uraniumOre",
+            "quantumprocessing:vibraniumOre", "quantumprocessing:tinOre"};
+
+    private static final int SECTOR_BYTES = 4096;
+    private static final int MAX_BLOCK_ID = 4096;
+    private static final int WORLD_HEIGHT = 256;
+
+    private final String[] blockNames;
+    /** block id -> index in blockNames, -1 for every other block */
+    private final int[] oreIndexById = new int[MAX_BLOCK_ID];
+
+    public RegionScanner(String[] blockNames, Map<String, Integer> blockIds) {
+        this.blockNames = blockNames;
+        Arrays.fill(oreIndexById, -1);
+        for (int i = 0; i < blockNames.length; i++) {
+            Integer id = blockIds.get(blockNames[i]);
+            if (id == null || id < 0 || id >= MAX_BLOCK_ID) {
+                System.err.println("Block " + blockNames[i] + " is not in this world's id map, it is not counted");
+            } else {
+                oreIndexById[id] = i;
+            }
+        }
+    }
+
+    /**
+     * The counts of a set of chunks
+     */
+    private class Result {
+        final long[][] byY = new long[blockNames.length][WORLD_HEIGHT];
+        /** chunkX, chunkZ and the count of each ore, for the chunks that have any */
+        final List<int[]> chunks = new ArrayList<int[]>();
+        long chunksScanned;
+        long chunksFailed;
+        int regionFilesFailed;
+
+        void add(Result other) {
+            for (int ore = 0; ore < byY.length; ore++) {
+                for (int y = 0; y < WORLD_HEIGHT; y++) byY[ore][y] += other.byY[ore][y];
+            }
+            chunks.addAll(other.chunks);
+            chunksScanned += other.chunksScanned;
+            chunksFailed += other.chunksFailed;
+            regionFilesFailed += other.regionFilesFailed;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        File worldDir = null;
+        int dimension = 0;
+        File outDir = new File("ore-scan");
+        int threads = Runtime.getRuntime().availableProcessors();
+        String[] blockNames = DEFAULT_BLOCKS;
+
+        for (int i = 0; i < args.length; i++) {
+            if ("--dim".equals(args[i]) && i + 1 < args.length) {
+                dimension = Integer.parseInt(args[++i]);
+            } else if ("--out".equals(args[i]) && i + 1 < args.length) {
+                outDir = new File(args[++i]);
+            } else if ("--threads".equals(args[i]) && i + 1 < args.length) {
+                threads = Math.max(1, Integer.parseInt(args[++i]));
+            } else if ("--blocks".equals(args[i]) && i + 1 < args.length) {
+                blockNames = args[++i].split(",");
+            } else if (worldDir == null && !args[i].startsWith("--")) {
+                worldDir = new File(args[i]);
+            } else {
+                worldDir = null;
+                break;
+            }
+        }
+        if (worldDir == null) {
+            System.err.println("Usage: RegionScanner <world dir> [--dim 0] [--out ore-scan] [--threads N] [--blocks a,b,...]");
+            System.exit(1);
+        }
+
+        File regionDir = new File(dimension == 0 ? worldDir : new File(worldDir, "DIM" + dimension), "region");
+        File[] regionFiles = regionDir.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.endsWith(".mca");
+            }
+        });
+        if (regionFiles == null || regionFiles.length == 0) {
+            System.err.println("No region files in " + regionDir);
+            System.exit(1);
+        }
+
+        long start = System.nanoTime();
+        RegionScanner scanner = new RegionScanner(blockNames, readBlockIds(new File(worldDir, "level.dat")));
+        Result result = scanner.scan(regionFiles, threads);
+        double seconds = (System.nanoTime() - start) / 1.0E9;
+
+        if (!outDir.isDirectory() && !outDir.mkdirs()) throw new IOException("Can't create " + outDir);
+        scanner.writeByY(result, new File(outDir, "ore_by_y.csv"));
+        scanner.writeByChunk(result, new File(outDir, "ore_by_chunk.csv"));
+        scanner.writeSummary(result, new File(outDir, "summary.json"), worldDir, dimension, regionFiles.length, threads, seconds);
+        System.out.println(String.format(Locale.ROOT, "Scanned %d chunks in %d region files in %.1f s, results in %s",
+                result.chunksScanned, regionFiles.length, seconds, outDir));
+        if (result.chunksFailed > 0 || result.regionFilesFailed > 0) {
+            System.out.println(result.chunksFailed + " chunks and " + result.regionFilesFailed + " region files couldn't be read");
+        }
+    }
+
+    /**
+     * Reads the block name -> id map FML keeps in level.dat. 1.8 worlds have it in FML.ItemData, where block names
+     * start with \u0001; later versions in FML.Registries."minecraft:blocks".ids
+     */
+    static Map<String, Integer> readBlockIds(File levelDat) throws IOException {
+        Map<String, Object> root;
+        DataInputStream input = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(levelDat))));
+        try {
+            root = NBTReader.readRoot(input);
+        } finally {
+            input.close();
+        }
+
+        Map<String, Integer> ids = new HashMap<String, Integer>();
+        Map<String, Object> fml = NBTReader.getCompound(root, "FML");
+        List<Object> itemData = NBTReader.getList(fml, "ItemData");
+        if (itemData != null) {
+            for (Object entry : itemData) {
+                Map<String, Object> pair = NBTReader.asCompound(entry);
+                String key = NBTReader.getString(pair, "K");
+                if (key != null && key.length() > 1 && key.charAt(0) == '\u0001') {
+                    ids.put(key.substring(1), NBTReader.getInt(pair, "V", -1));
+                }
+            }
+        } else {
+            Map<String, Object> blocks = NBTReader.getCompound(NBTReader.getCompound(fml, "Registries"), "minecraft:blocks");
+            List<Object> blockIds = NBTReader.getList(blocks, "ids");
+            if (blockIds == null) throw new IOException(levelDat + " has no FML block id map, was the world saved with Forge?");
+            for (Object entry : blockIds) {
+                Map<String, Object> pair = NBTReader.asCompound(entry);
+                ids.put(NBTReader.getString(pair, "K"), NBTReader.getInt(pair, "V", -1));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Scans the region files on the given number of threads, one region file per task
+     */
+    Result scan(File[] regionFiles, int threads) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Result>> futures = new ArrayList<Future<Result>>();
+            for (final File regionFile : regionFiles) {
+                futures.add(pool.submit(new Callable<Result>() {
+                    @Override
+                    public Result call() {
+                        Result result = new Result();
+                        try {
+                            scanRegion(regionFile, result);
+                        } catch (IOException e) {
+                            // the chunks counted before the failure are kept
+                            System.err.println("Can't read " + regionFile + ": " + e);
+                            result.regionFilesFailed++;
+                        }
+                        return result;
+                    }
+                }));
+            }
+
+            Result total = new Result();
+            int done = 0;
+            for (Future<Result> future : futures) {
+                total.add(future.get());
+                if (++done % 100 == 0) System.out.println(done + "/" + regionFiles.length + " region files");
+            }
+            return total;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // The 8 KiB header holds a 4 byte location per chunk: 3 bytes sector offset, 1 byte sector count. Each chunk is a
+    // 4 byte length, a 1 byte compression type (1 gzip, 2 zlib) and the compressed NBT
+    private void scanRegion(File regionFile, Result result) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(regionFile, "r");
+        try {
+            FileChannel channel = file.getChannel();
+            long size = channel.size();
+            if (size < 2 * SECTOR_BYTES) return;
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            for (int i = 0; i < 1024; i++) {
+                int location = map.getInt(i * 4);
+                long offset = (long)(location >>> 8) * SECTOR_BYTES;
+                if (offset == 0) continue;
+
+                if (offset + 5 > size) {
+                    result.chunksFailed++;
+                    continue;
+                }
+                int length = map.getInt((int) offset);
+                int compression = map.get((int) offset + 4);
+                if (length <= 1 || offset + 4 + length > size || (compression != 1 && compression != 2)) {
+                    result.chunksFailed++;
+                    continue;
+                }
+
+                byte[] compressed = new byte[length - 1];
+                ByteBuffer chunkData = map.duplicate();
+                chunkData.position((int) offset + 5);
+                chunkData.get(compressed);
+                InputStream inflater = compression == 1 ? new GZIPInputStream(new ByteArrayInputStream(compressed))
+                        : new InflaterInputStream(new ByteArrayInputStream(compressed));
+
+                try {
+                    scanChunk(NBTReader.readRoot(new DataInputStream(new BufferedInputStream(inflater))), result);
+                    result.chunksScanned++;
+                } catch (IOException e) {
+                    result.chunksFailed++;
+                } catch (RuntimeException e) {
+                    // corrupt data the checks above and NBTReader don't catch, e.g. a damaged compressed stream
+                    result.chunksFailed++;
+                }
+            }
+        } finally {
+            file.close();
+        }
+    }
+
+    // Sections hold 16x16x16 block ids: the low 8 bits in Blocks, the high 4 in the Add nibbles if there are any.
+    // The index within a section is y << 8 | z << 4 | x
+    private void scanChunk(Map<String, Object> root, Result result) {
+        Map<String, Object> level = NBTReader.getCompound(root, "Level");
+        List<Object> sections = NBTReader.getList(level, "Sections");
+        if (sections == null) return;
+
+        int[] counts = new int[blockNames.length];
+        boolean any = false;
+        for (Object sectionTag : sections) {
+            Map<String, Object> section = NBTReader.asCompound(sectionTag);
+            byte[] blocks = NBTReader.getByteArray(section, "Blocks");
+            byte[] add = NBTReader.getByteArray(section, "Add");
+            if (blocks == null || blocks.length < 4096) continue;
+            int baseY = (NBTReader.getInt(section, "Y", 0) & 15) << 4;
+
+            for (int i = 0; i < 4096; i++) {
+                int id = blocks[i] & 255;
+                if (add != null) id |= ((add[i >> 1] >> ((i & 1) << 2)) & 15) << 8;
+                int ore = oreIndexById[id];
+                if (ore >= 0) {
+                    counts[ore]++;
+                    result.byY[ore][baseY + (i >> 8)]++;
+                    any = true;
+                }
+            }
+        }
+
+        if (any) {
+            int[] row = new int[2 + counts.length];
+            row[0] = NBTReader.getInt(level, "xPos", 0);
+            row[1] = NBTReader.getInt(level, "zPos", 0);
+            System.arraycopy(counts, 0, row, 2, counts.length);
+            result.chunks.add(row);
+        }
+    }
+
+    private String csvHeader(String first) {
+        StringBuilder header = new StringBuilder(first);
+        for (String blockName : blockNames) header.append(',').append(blockName);
+        return header.toString();
+    }
+
+    private void writeByY(Result result, File file) throws IOException {
+        PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(file)));
+        try {
+            out.println(csvHeader("y"));
+            for (int y = 0; y < WORLD_HEIGHT; y++) {
+                out.print(y);
+                for (long[] oreByY : result.byY) out.print("," + oreByY[y]);
+                out.println();
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeByChunk(Result result, File file) throws IOException {
+        PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(file)));
+        try {
+            out.println(csvHeader("chunkX,chunkZ"));
+            for (int[] row : result.chunks) {
+                out.print(row[0]);
+                for (int i = 1; i < row.length; i++) out.print("," + row[i]);
+                out.println();
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeSummary(Result result, File file, File worldDir, int dimension, int regionFiles, int threads, double seconds) throws IOException {
+        PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(file)));
+        try {
+            out.println("{");
+            out.println("  \"world\": \"" + jsonEscape(worldDir.getAbsolutePath()) + "\",");
+            out.println("  \"dimension\": " + dimension + ",");
+            out.println("  \"regionFiles\": " + regionFiles + ",");
+            out.println("  \"chunksScanned\": " + result.chunksScanned + ",");
+            out.println("  \"chunksFailed\": " + result.chunksFailed + ",");
+            out.println("  \"regionFilesFailed\": " + result.regionFilesFailed + ",");
+            out.println("  \"chunksWithOre\": " + result.chunks.size() + ",");
+            out.println("  \"threads\": " + threads + ",");
+            out.println(String.format(Locale.ROOT, "  \"seconds\": %.3f,", seconds));
+            out.println("  \"ores\": {");
+            for (int ore = 0; ore < blockNames.length; ore++) {
+                long total = 0;
+                int minY = -1;
+                int maxY = -1;
+                for (int y = 0; y < WORLD_HEIGHT; y++) {
+                    long count = result.byY[ore][y];
+                    if (count == 0) continue;
+                    total += count;
+                    if (minY < 0) minY = y;
+                    maxY = y;
+                }
+                double perChunk = result.chunksScanned == 0 ? 0 : total / (double) result.chunksScanned;
+                out.print(String.format(Locale.ROOT, "    \"%s\": {\"blocks\": %d, \"perChunk\": %.3f, \"minY\": %d, \"maxY\": %d}",
+                        jsonEscape(blockNames[ore]), total, perChunk, minY, maxY));
+                out.println(ore + 1 < blockNames.length ? "," : "");
+            }
+            out.println("  }");
+            out.println("}");
+        } finally {
+            out.close();
+        }
+    }
+
+    private static String jsonEscape(String text) {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}